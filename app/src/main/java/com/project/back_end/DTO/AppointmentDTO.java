@@ -1,4 +1,6 @@
 package com.project.back_end.DTO;
+import com.project.back_end.models.Appointment;
+
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -46,7 +48,7 @@ public class AppointmentDTO {
 
         this.appointmentDate = appointmentTime.toLocalDate();
         this.appointmentTimeOnly = appointmentTime.toLocalTime();
-        this.endTime = appointmentTime.plusHours(1);
+        this.endTime = appointmentTime.plusMinutes(Appointment.DURATION_MINUTES);
     }
 
     public Long getId() {
@@ -0,0 +1,51 @@
+package com.project.back_end.DTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Read model for doctor listings; same JSON shape as Doctor, without the entity behind it
+public class DoctorListingDTO {
+    private final Long id;
+    private final String name;
+    private final String specialty;
+    private final String email;
+    private final String phone;
+
+    private List<String> availableTimes = new ArrayList<>();
+
+    public DoctorListingDTO(Long id, String name, String specialty, String email, String phone) {
+        this.id = id;
+        this.name = name;
+        this.specialty = specialty;
+        this.email = email;
+        this.phone = phone;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSpecialty() {
+        return specialty;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
+    public List<String> getAvailableTimes() {
+        return availableTimes;
+    }
+
+    public void setAvailableTimes(List<String> availableTimes) {
+        this.availableTimes = availableTimes;
+    }
+}
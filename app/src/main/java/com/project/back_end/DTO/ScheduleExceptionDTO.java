@@ -0,0 +1,38 @@
+package com.project.back_end.DTO;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Request body for a date-specific override; an empty "times" list marks the day as unavailable
+public class ScheduleExceptionDTO {
+    private LocalDate date;
+    private List<String> times;
+    private String reason;
+
+    public ScheduleExceptionDTO() {
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public List<String> getTimes() {
+        return times;
+    }
+
+    public void setTimes(List<String> times) {
+        this.times = times;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
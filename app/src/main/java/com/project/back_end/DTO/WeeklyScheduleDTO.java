@@ -0,0 +1,30 @@
+package com.project.back_end.DTO;
+
+import java.time.DayOfWeek;
+import java.util.List;
+import java.util.Map;
+
+// Request body for a doctor's weekly template: slot length plus "HH:mm" start times per weekday
+public class WeeklyScheduleDTO {
+    private Integer slotMinutes;
+    private Map<DayOfWeek, List<String>> days;
+
+    public WeeklyScheduleDTO() {
+    }
+
+    public Integer getSlotMinutes() {
+        return slotMinutes;
+    }
+
+    public void setSlotMinutes(Integer slotMinutes) {
+        this.slotMinutes = slotMinutes;
+    }
+
+    public Map<DayOfWeek, List<String>> getDays() {
+        return days;
+    }
+
+    public void setDays(Map<DayOfWeek, List<String>> days) {
+        this.days = days;
+    }
+}
@@ -0,0 +1,162 @@
+package com.project.back_end.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.ConnectionString;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Caps how many requests work against each store at once, sized from its connection pool:
+// MySQL permits = Hikari maximum-pool-size x per-connection, Mongo permits = the driver's maxPoolSize
+// x per-connection. Prescription routes count against Mongo, the other API routes against MySQL.
+// Meant for the virtual-thread mode (profile "virtual"), where Tomcat no longer bounds concurrency:
+// excess requests park on a fair semaphore, which costs a virtual thread almost nothing, instead
+// of all waiting in Hikari's connection-timeout. A request that cannot get a permit within
+// concurrency.limiter.acquire-timeout-ms gets 503 with Retry-After.
+// Async requests (reactive prescriptions, bulk upload) keep their permit until the async work completes.
+// Runs just before TokenAuthenticationFilter, so token checks that read MySQL are covered too.
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+    private static final int MONGO_DEFAULT_POOL_SIZE = 100;
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final long acquireTimeoutMillis;
+    private final String apiPath;
+    private final Semaphore jdbcPermits;
+    private final Semaphore mongoPermits;
+
+    public ConcurrencyLimitFilter(ObjectMapper objectMapper,
+                                  DataSource dataSource,
+                                  @Value("${concurrency.limiter.enabled:false}") boolean enabled,
+                                  @Value("${concurrency.limiter.per-connection:2}") int perConnection,
+                                  @Value("${concurrency.limiter.acquire-timeout-ms:5000}") long acquireTimeoutMillis,
+                                  @Value("${spring.datasource.hikari.maximum-pool-size:10}") int configuredJdbcPool,
+                                  @Value("${spring.data.mongodb.uri:mongodb://localhost}") String mongoUri,
+                                  @Value("${api.path}") String apiPath) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.apiPath = apiPath.endsWith("/") ? apiPath : apiPath + "/";
+
+        int jdbcPool = configuredJdbcPool;
+        try {
+            // The running pool is authoritative (it may be wrapped, e.g. by a query counter)
+            jdbcPool = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+        } catch (Exception ignored) {
+            // Not Hikari; fall back to the configured size
+        }
+        Integer mongoPool = new ConnectionString(mongoUri).getMaxConnectionPoolSize();
+
+        this.jdbcPermits = new Semaphore(Math.max(1, jdbcPool * perConnection), true);
+        this.mongoPermits = new Semaphore(Math.max(1, (mongoPool != null ? mongoPool : MONGO_DEFAULT_POOL_SIZE) * perConnection), true);
+        if (enabled) {
+            log.info("Concurrency limiter: {} MySQL permits, {} Mongo permits",
+                    jdbcPermits.availablePermits(), mongoPermits.availablePermits());
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || permitsFor(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain chain) throws ServletException, IOException {
+        Semaphore permits = permitsFor(request);
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), Map.of("message", "Server is busy, please retry"));
+            return;
+        }
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete(permits));
+                async = true;
+            }
+        } finally {
+            if (!async) permits.release();
+        }
+    }
+
+    // ---------- Helpers ----------
+
+    // Semaphore for the store behind the route; null for routes that use neither (pages, static files)
+    private Semaphore permitsFor(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith(apiPath + "prescription")) return mongoPermits;
+        if (path.startsWith(apiPath) || under(path, "/appointments") || under(path, "/patient")) return jdbcPermits;
+        return null;
+    }
+
+    private static boolean under(String path, String root) {
+        return path.equals(root) || path.startsWith(root + "/");
+    }
+
+    // Returns the permit once the async request ends; onComplete also follows a timeout or an error
+    private static final class ReleaseOnComplete implements AsyncListener {
+
+        private final Semaphore permits;
+
+        ReleaseOnComplete(Semaphore permits) {
+            this.permits = permits;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permits.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // A new async cycle replaces the listeners; stay registered for it
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.project.back_end.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ExecutorConfig {
+
+    // Boot only auto-configures applicationTaskExecutor while no other Executor bean exists, so it is
+    // declared here from the same spring.task.execution settings. MVC async requests and the
+    // background jobs (doctor deletion, backfills) run on it.
+    @Bean(name = "applicationTaskExecutor")
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    // Store lookups fanned out by PatientRecordService. Bounded on both threads and queue, so a slow
+    // store cannot pile up work: once full, new lookups are rejected and the record is served partial.
+    @Bean(name = "recordFetchExecutor")
+    public ThreadPoolTaskExecutor recordFetchExecutor(
+            @Value("${patients.record.parallelism:16}") int parallelism,
+            @Value("${patients.record.queue-capacity:64}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("record-fetch-");
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+}
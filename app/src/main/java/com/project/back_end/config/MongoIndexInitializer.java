@@ -0,0 +1,66 @@
+package com.project.back_end.config;
+
+import com.mongodb.MongoNamespace;
+import com.project.back_end.models.Prescription;
+import com.project.back_end.models.PrescriptionTerm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Creates the indexes declared on the Mongo documents (@Indexed / @CompoundIndex) before the
+// application serves traffic. Index creation is idempotent, so every instance can run it on startup.
+// Prescriptions used to land in "prescription" (the mapping set a collation instead of a collection name);
+// that collection is renamed once so existing documents stay visible.
+@Component
+public class MongoIndexInitializer implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoIndexInitializer.class);
+
+    private static final String LEGACY_PRESCRIPTION_COLLECTION = "prescription";
+
+    private static final List<Class<?>> DOCUMENTS = List.of(Prescription.class, PrescriptionTerm.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    public MongoIndexInitializer(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        renameLegacyPrescriptions();
+
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        for (Class<?> type : DOCUMENTS) {
+            try {
+                IndexOperations ops = mongoTemplate.indexOps(type);
+                resolver.resolveIndexFor(type).forEach(ops::ensureIndex);
+            } catch (Exception e) {
+                log.warn("Could not create indexes for {}: {}", type.getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
+    // ---------- Helpers ----------
+
+    private void renameLegacyPrescriptions() {
+        String target = mongoTemplate.getCollectionName(Prescription.class);
+        try {
+            if (mongoTemplate.collectionExists(LEGACY_PRESCRIPTION_COLLECTION) && !mongoTemplate.collectionExists(target)) {
+                mongoTemplate.getCollection(LEGACY_PRESCRIPTION_COLLECTION)
+                        .renameCollection(new MongoNamespace(mongoTemplate.getDb().getName(), target));
+                log.info("Renamed Mongo collection {} to {}", LEGACY_PRESCRIPTION_COLLECTION, target);
+            }
+        } catch (Exception e) {
+            // Another instance may have renamed it first
+            log.warn("Could not rename Mongo collection {}: {}", LEGACY_PRESCRIPTION_COLLECTION, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.project.back_end.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Counts SQL statements Hibernate prepares on the current thread.
+// Registered through hibernate.session_factory.statement_inspector; reset per request by TokenAuthenticationFilter.
+public class QueryCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    public static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    public static int current() {
+        return COUNT.get()[0];
+    }
+
+    public static void clear() {
+        COUNT.remove();
+    }
+}
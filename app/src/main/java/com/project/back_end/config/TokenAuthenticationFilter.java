@@ -0,0 +1,217 @@
+package com.project.back_end.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.back_end.services.AuthenticatedPrincipal;
+import com.project.back_end.services.TokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Authenticates every request once, before dispatch; controllers do not validate tokens themselves.
+// The token is read from "Authorization: Bearer <token>"; the old /{token} path segment is still
+// accepted as a compatibility mode. Routes are denied unless a rule below opens them: public routes
+// are listed with permit(), protected ones with rule() and the roles allowed to call them.
+@Component
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenAuthenticationFilter.class);
+
+    private static final String BEARER = "Bearer ";
+    // Role placeholder: the allowed role is taken from the {user} path variable
+    private static final String ROLE_FROM_PATH = "{user}";
+
+    private final TokenService tokenService;
+    private final AuthenticatedPrincipal principal;
+    private final ObjectMapper objectMapper;
+    private final List<Rule> rules = new ArrayList<>();
+
+    public TokenAuthenticationFilter(TokenService tokenService,
+                                     AuthenticatedPrincipal principal,
+                                     ObjectMapper objectMapper,
+                                     @Value("${api.path}") String apiPath) {
+        this.tokenService = tokenService;
+        this.principal = principal;
+        this.objectMapper = objectMapper;
+
+        String api = apiPath.endsWith("/") ? apiPath : apiPath + "/";
+
+        // First matching rule wins
+        // Public: static pages, CORS preflight, logins, signup and the doctor listing
+        permit(HttpMethod.OPTIONS, "/**");
+        permit(HttpMethod.GET, "/");
+        permit(HttpMethod.GET, "/index.html");
+        permit(HttpMethod.GET, "/favicon.ico");
+        permit(HttpMethod.GET, "/assets/**");
+        permit(HttpMethod.GET, "/js/**");
+        permit(HttpMethod.GET, "/pages/**");
+        permit(HttpMethod.GET, "/error");
+        // Dashboards render a login redirect themselves when the path token is invalid
+        permit(HttpMethod.GET, "/adminDashboard/{token}");
+        permit(HttpMethod.GET, "/doctorDashboard/{token}");
+        permit(HttpMethod.POST, api + "admin");
+        permit(HttpMethod.POST, api + "doctor/login");
+        permit(HttpMethod.GET, api + "doctor");
+        permit(HttpMethod.GET, api + "doctor/filter/{name}/{time}/{speciality}");
+        permit(HttpMethod.POST, "/patient");
+        permit(HttpMethod.POST, "/patient/login");
+
+        // Doctor endpoints
+        rule(HttpMethod.GET, api + "doctor/availability/{user}/{doctorId}/{date}", ROLE_FROM_PATH);
+        rule(HttpMethod.GET, api + "doctor/availability/{user}/{doctorId}/{date}/{token}", ROLE_FROM_PATH);
+        rule(HttpMethod.POST, api + "doctor", "admin");
+        rule(HttpMethod.POST, api + "doctor/{token}", "admin");
+        rule(HttpMethod.PUT, api + "doctor", "admin");
+        rule(HttpMethod.PUT, api + "doctor/{token}", "admin");
+        rule(HttpMethod.DELETE, api + "doctor/{id}", "admin");
+        rule(HttpMethod.DELETE, api + "doctor/{id}/{token}", "admin");
+        rule(HttpMethod.GET, api + "doctor/deletions/{jobId}", "admin");
+        rule(HttpMethod.GET, api + "doctor/deletions/{jobId}/{token}", "admin");
+        rule(HttpMethod.PUT, api + "doctor/schedule/{doctorId}", "admin");
+        rule(HttpMethod.PUT, api + "doctor/schedule/{doctorId}/{token}", "admin");
+        rule(HttpMethod.POST, api + "doctor/schedule/{doctorId}/exceptions", "admin");
+        rule(HttpMethod.POST, api + "doctor/schedule/{doctorId}/exceptions/{token}", "admin");
+
+        // Appointment endpoints
+        rule(HttpMethod.GET, "/appointments/{date}/{patientName}", "doctor");
+        rule(HttpMethod.GET, "/appointments/{date}/{patientName}/{token}", "doctor");
+        rule(HttpMethod.POST, "/appointments", "patient");
+        rule(HttpMethod.POST, "/appointments/{token}", "patient");
+        rule(HttpMethod.PUT, "/appointments", "patient");
+        rule(HttpMethod.PUT, "/appointments/{token}", "patient");
+        rule(HttpMethod.DELETE, "/appointments/{id}", "patient");
+        rule(HttpMethod.DELETE, "/appointments/{id}/{token}", "patient");
+
+        // Patient endpoints
+        rule(HttpMethod.GET, "/patient", "patient");
+        rule(HttpMethod.GET, "/patient/filter/{condition}/{name}", "patient");
+        rule(HttpMethod.GET, "/patient/filter/{condition}/{name}/{token}", "patient");
+        rule(HttpMethod.GET, "/patient/{id}/appointments", "patient");
+        rule(HttpMethod.GET, "/patient/{id}/record", "doctor");
+        rule(HttpMethod.GET, "/patient/{id}/record/{token}", "doctor");
+        rule(HttpMethod.GET, "/patient/{id}/{token}", "patient");
+        rule(HttpMethod.GET, "/patient/{token}", "patient");
+
+        // Admin endpoints
+        rule(HttpMethod.POST, api + "admin/import/{kind}", "admin");
+        rule(HttpMethod.POST, api + "admin/import/{kind}/{token}", "admin");
+        rule(HttpMethod.GET, api + "admin/sweeper", "admin");
+        rule(HttpMethod.GET, api + "admin/sweeper/{token}", "admin");
+        rule(HttpMethod.GET, api + "admin/prescription-backfill", "admin");
+        rule(HttpMethod.GET, api + "admin/prescription-backfill/{token}", "admin");
+
+        // Prescription endpoints (bulk before the POST /{token} form, which would match it too)
+        rule(HttpMethod.POST, api + "prescription/bulk", "doctor", "admin");
+        rule(HttpMethod.POST, api + "prescription/bulk/{token}", "doctor", "admin");
+        rule(HttpMethod.POST, api + "prescription", "doctor");
+        rule(HttpMethod.POST, api + "prescription/{token}", "doctor");
+        rule(HttpMethod.GET, api + "prescription/batch", "doctor");
+        rule(HttpMethod.GET, api + "prescription/batch/{token}", "doctor");
+        rule(HttpMethod.GET, api + "prescription/search", "doctor", "admin");
+        rule(HttpMethod.GET, api + "prescription/search/{token}", "doctor", "admin");
+        rule(HttpMethod.GET, api + "prescription/patient/{patientId}", "doctor", "admin");
+        rule(HttpMethod.GET, api + "prescription/patient/{patientId}/{token}", "doctor", "admin");
+        rule(HttpMethod.GET, api + "prescription/doctor/{doctorId}", "doctor", "admin");
+        rule(HttpMethod.GET, api + "prescription/doctor/{doctorId}/{token}", "doctor", "admin");
+        rule(HttpMethod.GET, api + "prescription/{appointmentId}", "doctor");
+        rule(HttpMethod.GET, api + "prescription/{appointmentId}/{token}", "doctor");
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain chain) throws ServletException, IOException {
+        QueryCounter.reset();
+        try {
+            if (authenticate(request, response)) {
+                chain.doFilter(request, response);
+            }
+        } finally {
+            if (log.isDebugEnabled()) {
+                log.debug("{} -> {} SQL statements", request.getMethod(), QueryCounter.current());
+            }
+            QueryCounter.clear();
+        }
+    }
+
+    // ---------- Helpers ----------
+
+    // Returns false after writing a 401/403 when the route is not open and the token does not qualify
+    private boolean authenticate(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+
+        for (Rule rule : rules) {
+            if (!rule.method.matches(request.getMethod())) continue;
+
+            PathPattern.PathMatchInfo match = rule.pattern.matchAndExtract(path);
+            if (match == null) continue;
+            if (rule.roles.length == 0) return true;
+
+            Map<String, String> vars = match.getUriVariables();
+            String token = bearerToken(request);
+            if (token == null) token = vars.get("token");
+
+            if (token == null || token.isBlank()) {
+                reject(response, HttpStatus.UNAUTHORIZED, "Missing token");
+                return false;
+            }
+
+            for (String role : rule.roles) {
+                String required = ROLE_FROM_PATH.equals(role) ? vars.get("user") : role;
+                if (required != null && tokenService.validateToken(token, required)) {
+                    principal.resolve(token);
+                    return true;
+                }
+            }
+
+            reject(response, HttpStatus.UNAUTHORIZED, "Invalid or expired token");
+            return false;
+        }
+
+        // No rule: closed by default, so a new route stays private until it is listed above
+        reject(response, HttpStatus.FORBIDDEN, "Access denied");
+        return false;
+    }
+
+    private String bearerToken(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BEARER, 0, BEARER.length())) return null;
+        return header.substring(BEARER.length()).trim();
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Map.of("message", message));
+    }
+
+    private void permit(HttpMethod method, String pattern) {
+        rules.add(new Rule(method, PathPatternParser.defaultInstance.parse(pattern), new String[0]));
+    }
+
+    private void rule(HttpMethod method, String pattern, String... roles) {
+        if (roles.length == 0) throw new IllegalArgumentException("Protected route without roles: " + pattern);
+        rules.add(new Rule(method, PathPatternParser.defaultInstance.parse(pattern), roles));
+    }
+
+    private record Rule(HttpMethod method, PathPattern pattern, String[] roles) {
+    }
+}
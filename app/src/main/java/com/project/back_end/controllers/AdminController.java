@@ -1,19 +1,35 @@
-
 package com.project.back_end.controllers;
 import com.project.back_end.models.Admin;
+import com.project.back_end.services.AppointmentStatusSweeper;
+import com.project.back_end.services.BulkImportService;
 import com.project.back_end.services.ClinicService;
+import com.project.back_end.services.PrescriptionBackfill;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
 import java.util.Map;
 
 @RestController
 @RequestMapping("${api.path}" + "admin")
 public class AdminController {
     private final ClinicService clinicService;
+    private final BulkImportService bulkImportService;
+    private final AppointmentStatusSweeper appointmentStatusSweeper;
+    private final PrescriptionBackfill prescriptionBackfill;
 
-    public AdminController(ClinicService clinicService) {
+    public AdminController(ClinicService clinicService,
+                           BulkImportService bulkImportService,
+                           AppointmentStatusSweeper appointmentStatusSweeper,
+                           PrescriptionBackfill prescriptionBackfill) {
         this.clinicService = clinicService;
+        this.bulkImportService = bulkImportService;
+        this.appointmentStatusSweeper = appointmentStatusSweeper;
+        this.prescriptionBackfill = prescriptionBackfill;
     }
 
     @PostMapping
@@ -21,5 +37,38 @@ public class AdminController {
         return clinicService.validateAdmin(admin);
     }
 
-}
+    // Bulk import (Admin only): kind = patients | appointments.
+    // Body is text/csv with a header row, or application/x-ndjson (one JSON object per line).
+    @PostMapping({"/import/{kind}", "/import/{kind}/{token}"})
+    public ResponseEntity<Map<String, Object>> bulkImport(
+            @PathVariable String kind,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            InputStream body
+    ) throws IOException {
+        boolean ndjson = contentType != null && contentType.toLowerCase().contains("json");
+
+        Map<String, Object> res;
+        if ("patients".equalsIgnoreCase(kind)) {
+            res = bulkImportService.importPatients(body, ndjson);
+        } else if ("appointments".equalsIgnoreCase(kind)) {
+            res = bulkImportService.importAppointments(body, ndjson);
+        } else {
+            res = new HashMap<>();
+            res.put("message", "Unknown import type: " + kind);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(res);
+        }
+        return ResponseEntity.ok(res);
+    }
 
+    // Appointment status sweeper counters (Admin only)
+    @GetMapping({"/sweeper", "/sweeper/{token}"})
+    public ResponseEntity<Map<String, Object>> sweeperMetrics() {
+        return ResponseEntity.ok(appointmentStatusSweeper.metrics());
+    }
+
+    // Prescription history backfill progress (Admin only)
+    @GetMapping({"/prescription-backfill", "/prescription-backfill/{token}"})
+    public ResponseEntity<Map<String, Object>> prescriptionBackfillMetrics() {
+        return ResponseEntity.ok(prescriptionBackfill.metrics());
+    }
+}
@@ -3,7 +3,7 @@ package com.project.back_end.controllers;
 
 import com.project.back_end.models.Appointment;
 import com.project.back_end.services.AppointmentService;
-import com.project.back_end.services.ClinicService;
+import com.project.back_end.services.AuthenticatedPrincipal;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -16,100 +16,66 @@ import java.util.Map;
 @RequestMapping("/appointments")
 public class AppointmentController {
     private final AppointmentService appointmentService;
-    private final ClinicService clinicService;
+    private final AuthenticatedPrincipal principal;
 
-    public AppointmentController(AppointmentService appointmentService, ClinicService clinicService) {
+    public AppointmentController(AppointmentService appointmentService,
+                                 AuthenticatedPrincipal principal) {
         this.appointmentService = appointmentService;
-        this.clinicService = clinicService;
+        this.principal = principal;
     }
 
     // Doctor: get appointments by date + patientName (optional)
-    @GetMapping("/{date}/{patientName}/{token}")
+    @GetMapping({"/{date}/{patientName}", "/{date}/{patientName}/{token}"})
     public ResponseEntity<Map<String, Object>> getAppointments(
             @PathVariable LocalDate date,
-            @PathVariable String patientName,
-            @PathVariable String token
+            @PathVariable String patientName
     ) {
-        // validate doctor token
-        ResponseEntity<Map<String, String>> validation = clinicService.validateToken(token, "doctor");
-        if (validation.getBody() != null && !validation.getBody().isEmpty()) {
-            Map<String, Object> error = new HashMap<>();
-            error.putAll(validation.getBody());
-            return ResponseEntity.status(validation.getStatusCode()).body(error);
-        }
-
         // normalize patientName to allow "null" string from frontend
         String pname = ("null".equalsIgnoreCase(patientName) || patientName.isBlank()) ? null : patientName;
 
-        Map<String, Object> response = appointmentService.getAppointment(pname, date, token);
+        Map<String, Object> response = appointmentService.getAppointment(pname, date, principal.getToken());
         return ResponseEntity.ok(response);
     }
 
     // Patient: book appointment
-    @PostMapping("/{token}")
-    public ResponseEntity<Map<String, String>> bookAppointment(
-            @PathVariable String token,
-            @RequestBody Appointment appointment
-    ) {
-        // validate patient token
-        ResponseEntity<Map<String, String>> validation = clinicService.validateToken(token, "patient");
-        if (validation.getBody() != null && !validation.getBody().isEmpty()) {
-            return ResponseEntity.status(validation.getStatusCode()).body(validation.getBody());
-        }
+    @PostMapping({"", "/{token}"})
+    public ResponseEntity<Map<String, String>> bookAppointment(@RequestBody Appointment appointment) {
+        // Validation (doctor, patient, slot) and the insert run as one pipeline in AppointmentService
+        AppointmentService.Booking booking = appointmentService.book(appointment, principal.getPatientId());
+        int booked = booking.code();
 
-        // validate appointment slot / doctor existence
-        int valid = clinicService.validateAppointment(appointment);
-        if (valid == -1) {
-            Map<String, String> res = new HashMap<>();
-            res.put("message", "Doctor not found");
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(res);
+        Map<String, String> res = new HashMap<>();
+        if (booked == 1) {
+            res.put("message", "Appointment booked successfully");
+            return ResponseEntity.status(HttpStatus.CREATED).body(res);
         }
-        if (valid == 0) {
-            Map<String, String> res = new HashMap<>();
+        if (booked == 0) {
             res.put("message", "Selected time is not available");
             return ResponseEntity.status(HttpStatus.CONFLICT).body(res);
         }
-
-        int booked = appointmentService.bookAppointment(appointment);
-        if (booked == 1) {
-            Map<String, String> res = new HashMap<>();
-            res.put("message", "Appointment booked successfully");
-            return ResponseEntity.status(HttpStatus.CREATED).body(res);
+        if (booked == -1) {
+            res.put("message", "Doctor not found");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(res);
+        }
+        if (booked == -3) {
+            res.put("message", booking.message());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res);
         }
 
-        Map<String, String> res = new HashMap<>();
         res.put("message", "Failed to book appointment");
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(res);
     }
 
     // Patient: update appointment
-    @PutMapping("/{token}")
-    public ResponseEntity<Map<String, String>> updateAppointment(
-            @PathVariable String token,
-            @RequestBody Appointment appointment
-    ) {
-        // validate patient token
-        ResponseEntity<Map<String, String>> validation = clinicService.validateToken(token, "patient");
-        if (validation.getBody() != null && !validation.getBody().isEmpty()) {
-            return ResponseEntity.status(validation.getStatusCode()).body(validation.getBody());
-        }
-
-        // AppointmentService handles existence + validateAppointment internally (as per your spec)
-        return appointmentService.updateAppointment(appointment);
+    @PutMapping({"", "/{token}"})
+    public ResponseEntity<Map<String, String>> updateAppointment(@RequestBody Appointment appointment) {
+        // AppointmentService handles existence + validation internally
+        return appointmentService.updateAppointment(appointment, principal.getPatientId());
     }
 
     // Patient: cancel appointment
-    @DeleteMapping("/{id}/{token}")
-    public ResponseEntity<Map<String, String>> cancelAppointment(
-            @PathVariable long id,
-            @PathVariable String token
-    ) {
-        // validate patient token
-        ResponseEntity<Map<String, String>> validation = clinicService.validateToken(token, "patient");
-        if (validation.getBody() != null && !validation.getBody().isEmpty()) {
-            return ResponseEntity.status(validation.getStatusCode()).body(validation.getBody());
-        }
-
-        return appointmentService.cancelAppointment(id, token);
+    @DeleteMapping({"/{id}", "/{id}/{token}"})
+    public ResponseEntity<Map<String, String>> cancelAppointment(@PathVariable long id) {
+        return appointmentService.cancelAppointment(id, principal.getToken());
     }
 }
@@ -1,8 +1,13 @@
 package com.project.back_end.controllers;
 import com.project.back_end.DTO.Login;
+import com.project.back_end.DTO.ScheduleExceptionDTO;
+import com.project.back_end.DTO.WeeklyScheduleDTO;
 import com.project.back_end.models.Doctor;
 import com.project.back_end.services.ClinicService;
+import com.project.back_end.services.DoctorDeletionService;
 import com.project.back_end.services.DoctorService;
+import com.project.back_end.services.ScheduleService;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -11,34 +16,34 @@ import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("${api.path}" + "doctor")
 public class DoctorController {
     private final DoctorService doctorService;
     private final ClinicService clinicService;
+    private final ScheduleService scheduleService;
+    private final DoctorDeletionService doctorDeletionService;
 
-    public DoctorController(DoctorService doctorService, ClinicService clinicService) {
+    private static final CacheControl PUBLIC_LISTING = CacheControl.maxAge(30, TimeUnit.SECONDS).cachePublic();
+
+    public DoctorController(DoctorService doctorService,
+                            ClinicService clinicService,
+                            ScheduleService scheduleService,
+                            DoctorDeletionService doctorDeletionService) {
         this.doctorService = doctorService;
         this.clinicService = clinicService;
+        this.scheduleService = scheduleService;
+        this.doctorDeletionService = doctorDeletionService;
     }
 
     // 1) Get Doctor Availability
-    @GetMapping("/availability/{user}/{doctorId}/{date}/{token}")
+    @GetMapping({"/availability/{user}/{doctorId}/{date}", "/availability/{user}/{doctorId}/{date}/{token}"})
     public ResponseEntity<Map<String, Object>> getDoctorAvailability(
-            @PathVariable String user,
             @PathVariable Long doctorId,
-            @PathVariable LocalDate date,
-            @PathVariable String token
+            @PathVariable LocalDate date
     ) {
-        ResponseEntity<Map<String, String>> validation = clinicService.validateToken(token, user);
-
-        if (validation.getBody() != null && !validation.getBody().isEmpty()) {
-            Map<String, Object> error = new HashMap<>();
-            error.putAll(validation.getBody());
-            return ResponseEntity.status(validation.getStatusCode()).body(error);
-        }
-
         List<String> slots = doctorService.getDoctorAvailability(doctorId, date);
 
         Map<String, Object> res = new HashMap<>();
@@ -47,25 +52,20 @@ public class DoctorController {
     }
 
     // 2) Get List of Doctors
+    // Optional keyset paging: ?size=N[&after=<nextCursor>]; without size the full list is returned
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getDoctors() {
-        List<Doctor> doctors = doctorService.getDoctors();
-        Map<String, Object> res = new HashMap<>();
-        res.put("doctors", doctors);
-        return ResponseEntity.ok(res);
+    public ResponseEntity<Map<String, Object>> getDoctors(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer size
+    ) {
+        Map<String, Object> res = doctorService.getDoctorListing(after, size);
+        // Same response for every caller, so shared caches may keep it briefly
+        return ResponseEntity.ok().cacheControl(PUBLIC_LISTING).body(res);
     }
 
     // 3) Add New Doctor (Admin only)
-    @PostMapping("/{token}")
-    public ResponseEntity<Map<String, String>> addDoctor(
-            @RequestBody Doctor doctor,
-            @PathVariable String token
-    ) {
-        ResponseEntity<Map<String, String>> validation = clinicService.validateToken(token, "admin");
-        if (validation.getBody() != null && !validation.getBody().isEmpty()) {
-            return ResponseEntity.status(validation.getStatusCode()).body(validation.getBody());
-        }
-
+    @PostMapping({"", "/{token}"})
+    public ResponseEntity<Map<String, String>> addDoctor(@RequestBody Doctor doctor) {
         int result = doctorService.saveDoctor(doctor);
 
         Map<String, String> res = new HashMap<>();
@@ -88,16 +88,8 @@ public class DoctorController {
     }
 
     // 5) Update Doctor Details (Admin only)
-    @PutMapping("/{token}")
-    public ResponseEntity<Map<String, String>> updateDoctor(
-            @RequestBody Doctor doctor,
-            @PathVariable String token
-    ) {
-        ResponseEntity<Map<String, String>> validation = clinicService.validateToken(token, "admin");
-        if (validation.getBody() != null && !validation.getBody().isEmpty()) {
-            return ResponseEntity.status(validation.getStatusCode()).body(validation.getBody());
-        }
-
+    @PutMapping({"", "/{token}"})
+    public ResponseEntity<Map<String, String>> updateDoctor(@RequestBody Doctor doctor) {
         int result = doctorService.updateDoctor(doctor);
 
         Map<String, String> res = new HashMap<>();
@@ -114,29 +106,35 @@ public class DoctorController {
     }
 
     // 6) Delete Doctor (Admin only)
-    @DeleteMapping("/{id}/{token}")
-    public ResponseEntity<Map<String, String>> deleteDoctor(
-            @PathVariable long id,
-            @PathVariable String token
-    ) {
-        ResponseEntity<Map<String, String>> validation = clinicService.validateToken(token, "admin");
-        if (validation.getBody() != null && !validation.getBody().isEmpty()) {
-            return ResponseEntity.status(validation.getStatusCode()).body(validation.getBody());
+    // Accepted at once; appointments and prescriptions are removed by a background job
+    @DeleteMapping({"/{id}", "/{id}/{token}"})
+    public ResponseEntity<Map<String, Object>> deleteDoctor(@PathVariable long id) {
+        Map<String, Object> res = new HashMap<>();
+        try {
+            DoctorDeletionService.Job job = doctorDeletionService.start(id);
+            if (job == null) {
+                res.put("message", "Doctor not found with id");
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(res);
+            }
+            res.put("message", "Doctor deletion started");
+            res.put("jobId", job.getId());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(res);
+        } catch (Exception e) {
+            res.put("message", "Some internal error occurred");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(res);
         }
+    }
 
-        int result = doctorService.deleteDoctor(id);
-
-        Map<String, String> res = new HashMap<>();
-        if (result == 1) {
-            res.put("message", "Doctor deleted successfully");
-            return ResponseEntity.ok(res);
-        } else if (result == -1) {
-            res.put("message", "Doctor not found with id");
+    // 6b) Doctor Deletion Progress (Admin only)
+    @GetMapping({"/deletions/{jobId}", "/deletions/{jobId}/{token}"})
+    public ResponseEntity<Map<String, Object>> getDeletionStatus(@PathVariable String jobId) {
+        DoctorDeletionService.Job job = doctorDeletionService.get(jobId);
+        if (job == null) {
+            Map<String, Object> res = new HashMap<>();
+            res.put("message", "Deletion job not found");
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(res);
-        } else {
-            res.put("message", "Some internal error occurred");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(res);
         }
+        return ResponseEntity.ok(job.toMap());
     }
 
     // 7) Filter Doctors
@@ -152,6 +150,50 @@ public class DoctorController {
         String s = ("null".equalsIgnoreCase(speciality) || speciality.isBlank()) ? null : speciality;
 
         Map<String, Object> result = clinicService.filterDoctor(n, s, t);
-        return ResponseEntity.ok(result);
+        return ResponseEntity.ok().cacheControl(PUBLIC_LISTING).body(result);
+    }
+
+    // 8) Replace Weekly Schedule (Admin only)
+    // Body: {"slotMinutes": 60, "days": {"MONDAY": ["09:00", "10:00"], ...}}; omitted days have no slots
+    @PutMapping({"/schedule/{doctorId}", "/schedule/{doctorId}/{token}"})
+    public ResponseEntity<Map<String, String>> saveWeeklySchedule(
+            @PathVariable Long doctorId,
+            @RequestBody WeeklyScheduleDTO schedule
+    ) {
+        int result = doctorService.saveWeeklySchedule(doctorId, schedule);
+
+        Map<String, String> res = new HashMap<>();
+        if (result == 1) {
+            res.put("message", "Schedule updated");
+            return ResponseEntity.ok(res);
+        } else if (result == -1) {
+            res.put("message", "Doctor not found");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(res);
+        } else {
+            res.put("message", "Invalid schedule");
+            return ResponseEntity.badRequest().body(res);
+        }
+    }
+
+    // 9) Add / Replace a Date Exception (Admin only)
+    // Body: {"date": "2025-12-24", "times": ["09:00"], "reason": "..."}; empty times = day off
+    @PostMapping({"/schedule/{doctorId}/exceptions", "/schedule/{doctorId}/exceptions/{token}"})
+    public ResponseEntity<Map<String, String>> addScheduleException(
+            @PathVariable Long doctorId,
+            @RequestBody ScheduleExceptionDTO exception
+    ) {
+        int result = scheduleService.saveException(doctorId, exception);
+
+        Map<String, String> res = new HashMap<>();
+        if (result == 1) {
+            res.put("message", "Schedule exception saved");
+            return ResponseEntity.ok(res);
+        } else if (result == -1) {
+            res.put("message", "Doctor has no schedule");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(res);
+        } else {
+            res.put("message", "Invalid schedule exception");
+            return ResponseEntity.badRequest().body(res);
+        }
     }
 }
@@ -1,7 +1,9 @@
 package com.project.back_end.controllers;
 import com.project.back_end.DTO.Login;
 import com.project.back_end.models.Patient;
+import com.project.back_end.services.AuthenticatedPrincipal;
 import com.project.back_end.services.ClinicService;
+import com.project.back_end.services.PatientRecordService;
 import com.project.back_end.services.PatientService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -15,44 +17,39 @@ import java.util.Map;
 public class PatientController {
     private final PatientService patientService;
     private final ClinicService clinicService;
+    private final AuthenticatedPrincipal principal;
+    private final PatientRecordService patientRecordService;
 
-    public PatientController(PatientService patientService, ClinicService clinicService) {
+    public PatientController(PatientService patientService,
+                             ClinicService clinicService,
+                             AuthenticatedPrincipal principal,
+                             PatientRecordService patientRecordService) {
         this.patientService = patientService;
         this.clinicService = clinicService;
+        this.principal = principal;
+        this.patientRecordService = patientRecordService;
     }
 
     // 1) Get Patient Details (token-based)
-    @GetMapping("/{token}")
-    public ResponseEntity<Map<String, Object>> getPatientDetails(@PathVariable String token) {
-
-        ResponseEntity<Map<String, String>> validation = clinicService.validateToken(token, "patient");
-        if (validation.getBody() != null && !validation.getBody().isEmpty()) {
-            Map<String, Object> error = new HashMap<>();
-            error.putAll(validation.getBody());
-            return ResponseEntity.status(validation.getStatusCode()).body(error);
-        }
-
-        return patientService.getPatientDetails(token);
+    @GetMapping({"", "/{token}"})
+    public ResponseEntity<Map<String, Object>> getPatientDetails() {
+        return patientService.getPatientDetails(principal.getToken());
     }
 
     // 2) Create a New Patient (Signup)
     @PostMapping
     public ResponseEntity<Map<String, String>> createPatient(@RequestBody Patient patient) {
 
-        // validate patient does not exist (email or phone)
-        boolean okToCreate = clinicService.validatePatient(patient);
-        if (!okToCreate) {
-            Map<String, String> res = new HashMap<>();
-            res.put("message", "Patient with email id or phone no already exist");
-            return ResponseEntity.status(HttpStatus.CONFLICT).body(res);
-        }
-
+        // The duplicate check (email or phone) happens inside createPatient, guarded by the unique keys
         int created = patientService.createPatient(patient);
 
         Map<String, String> res = new HashMap<>();
         if (created == 1) {
             res.put("message", "Signup successful");
             return ResponseEntity.status(HttpStatus.CREATED).body(res);
+        } else if (created == -1) {
+            res.put("message", "Patient with email id or phone no already exist");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(res);
         } else {
             res.put("message", "Internal server error");
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(res);
@@ -65,41 +62,39 @@ public class PatientController {
         return clinicService.validatePatientLogin(login);
     }
 
-    // 4) Get Patient Appointments
-    @GetMapping("/{id}/{token}")
+    // 4) Get Patient Appointments (one page; pass the returned nextCursor to continue)
+    @GetMapping({"/{id}/appointments", "/{id}/{token}"})
     public ResponseEntity<Map<String, Object>> getPatientAppointments(
             @PathVariable Long id,
-            @PathVariable String token
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
     ) {
-        ResponseEntity<Map<String, String>> validation = clinicService.validateToken(token, "patient");
-        if (validation.getBody() != null && !validation.getBody().isEmpty()) {
-            Map<String, Object> error = new HashMap<>();
-            error.putAll(validation.getBody());
-            return ResponseEntity.status(validation.getStatusCode()).body(error);
-        }
+        return patientService.getPatientAppointment(id, principal.getToken(), cursor, limit);
+    }
 
-        return patientService.getPatientAppointment(id, token);
+    // 5) Patient Record (Doctor only): appointments with their prescriptions; the whole record, or one page when a limit is given
+    @GetMapping({"/{id}/record", "/{id}/record/{token}"})
+    public ResponseEntity<Map<String, Object>> getPatientRecord(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return patientRecordService.getRecord(id, cursor, limit);
     }
 
-    // 5) Filter Patient Appointments
-    @GetMapping("/filter/{condition}/{name}/{token}")
+    // 6) Filter Patient Appointments
+    @GetMapping({"/filter/{condition}/{name}", "/filter/{condition}/{name}/{token}"})
     public ResponseEntity<Map<String, Object>> filterPatientAppointments(
             @PathVariable String condition,
             @PathVariable String name,
-            @PathVariable String token
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
     ) {
-        ResponseEntity<Map<String, String>> validation = clinicService.validateToken(token, "patient");
-        if (validation.getBody() != null && !validation.getBody().isEmpty()) {
-            Map<String, Object> error = new HashMap<>();
-            error.putAll(validation.getBody());
-            return ResponseEntity.status(validation.getStatusCode()).body(error);
-        }
-
         // frontend might pass "null" when no doctor name filter is given
         String doctorName = ("null".equalsIgnoreCase(name) || name.isBlank()) ? null : name;
         String cond = ("null".equalsIgnoreCase(condition) || condition.isBlank()) ? null : condition;
 
-        return clinicService.filterPatient(cond, doctorName, token);
+        return clinicService.filterPatient(cond, doctorName, principal.getToken(), cursor, limit);
     }
 }
 
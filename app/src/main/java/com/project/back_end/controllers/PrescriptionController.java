@@ -1,51 +1,109 @@
 package com.project.back_end.controllers;
 import com.project.back_end.models.Prescription;
-import com.project.back_end.services.ClinicService;
+import com.project.back_end.services.PrescriptionBulkService;
+import com.project.back_end.services.PrescriptionHistoryService;
+import com.project.back_end.services.PrescriptionSearchService;
 import com.project.back_end.services.PrescriptionService;
+import com.project.back_end.services.ReactivePrescriptionService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
-import java.util.HashMap;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 @RestController
 @RequestMapping("${api.path}" + "prescription")
 public class PrescriptionController {
     private final PrescriptionService prescriptionService;
-    private final ClinicService clinicService;
+    private final PrescriptionBulkService prescriptionBulkService;
+    private final PrescriptionHistoryService prescriptionHistoryService;
+    private final ReactivePrescriptionService reactivePrescriptionService;
+    private final PrescriptionSearchService prescriptionSearchService;
 
-    public PrescriptionController(PrescriptionService prescriptionService, ClinicService clinicService) {
+    // Save, get and batch-get run on the reactive driver and free the request thread while Mongo answers.
+    // false serves them with the blocking PrescriptionService on the request thread, as before.
+    @Value("${prescriptions.reactive.enabled:true}")
+    private boolean reactive;
+
+    public PrescriptionController(PrescriptionService prescriptionService,
+                                  PrescriptionBulkService prescriptionBulkService,
+                                  PrescriptionHistoryService prescriptionHistoryService,
+                                  ReactivePrescriptionService reactivePrescriptionService,
+                                  PrescriptionSearchService prescriptionSearchService) {
         this.prescriptionService = prescriptionService;
-        this.clinicService = clinicService;
+        this.prescriptionBulkService = prescriptionBulkService;
+        this.prescriptionHistoryService = prescriptionHistoryService;
+        this.reactivePrescriptionService = reactivePrescriptionService;
+        this.prescriptionSearchService = prescriptionSearchService;
     }
 
     // 1) Save Prescription (Doctor only)
-    @PostMapping("/{token}")
-    public ResponseEntity<Map<String, String>> savePrescription(
-            @PathVariable String token,
-            @RequestBody Prescription prescription
-    ) {
-        ResponseEntity<Map<String, String>> validation = clinicService.validateToken(token, "doctor");
-        if (validation.getBody() != null && !validation.getBody().isEmpty()) {
-            return ResponseEntity.status(validation.getStatusCode()).body(validation.getBody());
-        }
-
-        return prescriptionService.savePrescription(prescription);
-    }
-
-    // 2) Get Prescription by Appointment ID (Doctor only)
-    @GetMapping("/{appointmentId}/{token}")
-    public ResponseEntity<Map<String, Object>> getPrescription(
-            @PathVariable Long appointmentId,
-            @PathVariable String token
-    ) {
-        ResponseEntity<Map<String, String>> validation = clinicService.validateToken(token, "doctor");
-        if (validation.getBody() != null && !validation.getBody().isEmpty()) {
-            Map<String, Object> error = new HashMap<>();
-            error.putAll(validation.getBody());
-            return ResponseEntity.status(validation.getStatusCode()).body(error);
-        }
-
-        return prescriptionService.getPrescription(appointmentId);
+    @PostMapping({"", "/{token}"})
+    public Mono<ResponseEntity<Map<String, String>>> savePrescription(@RequestBody Prescription prescription) {
+        if (reactive) return reactivePrescriptionService.savePrescription(prescription);
+        return Mono.just(prescriptionService.savePrescription(prescription));
+    }
+
+    // Bulk save (Doctor or Admin): a JSON array or NDJSON body, one result per item.
+    // Runs on the MVC async executor, so large uploads do not hold a container thread.
+    @PostMapping({"/bulk", "/bulk/{token}"})
+    public Callable<ResponseEntity<Map<String, Object>>> savePrescriptions(InputStream body) {
+        return () -> ResponseEntity.ok(prescriptionBulkService.saveAll(body));
+    }
+
+    // 2) Get Prescriptions for many appointments in one call (Doctor only), e.g. ?appointmentIds=1,2,3
+    @GetMapping({"/batch", "/batch/{token}"})
+    public Mono<ResponseEntity<Map<String, Object>>> getPrescriptions(@RequestParam List<Long> appointmentIds) {
+        if (reactive) return reactivePrescriptionService.getPrescriptions(appointmentIds);
+        return Mono.just(prescriptionService.getPrescriptions(appointmentIds));
+    }
+
+    // Search medication and doctor notes (Doctor or Admin), best matches first, e.g. ?q=amoxicilin.
+    // Words also match as prefixes and with one typo; optional doctorId and from/to (yyyy-MM-dd) filters.
+    @GetMapping({"/search", "/search/{token}"})
+    public ResponseEntity<Map<String, Object>> searchPrescriptions(
+            @RequestParam String q,
+            @RequestParam(required = false) Long doctorId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return prescriptionSearchService.search(q, doctorId, from, to, cursor, limit);
+    }
+
+    // 3) Medication history of a patient, newest first (Doctor or Admin).
+    // Optional from/to (yyyy-MM-dd, inclusive); pass nextCursor back as cursor for the next page.
+    @GetMapping({"/patient/{patientId}", "/patient/{patientId}/{token}"})
+    public ResponseEntity<Map<String, Object>> getPatientHistory(
+            @PathVariable Long patientId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return prescriptionHistoryService.byPatient(patientId, from, to, cursor, limit);
+    }
+
+    // 4) Prescriptions written by a doctor, newest first (Doctor or Admin); same paging as above
+    @GetMapping({"/doctor/{doctorId}", "/doctor/{doctorId}/{token}"})
+    public ResponseEntity<Map<String, Object>> getDoctorHistory(
+            @PathVariable Long doctorId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return prescriptionHistoryService.byDoctor(doctorId, from, to, cursor, limit);
+    }
+
+    // 5) Get Prescription by Appointment ID (Doctor only)
+    @GetMapping({"/{appointmentId}", "/{appointmentId}/{token}"})
+    public Mono<ResponseEntity<Map<String, Object>>> getPrescription(@PathVariable Long appointmentId) {
+        if (reactive) return reactivePrescriptionService.getPrescription(appointmentId);
+        return Mono.just(prescriptionService.getPrescription(appointmentId));
     }
 }
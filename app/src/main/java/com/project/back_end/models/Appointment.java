@@ -9,10 +9,30 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 @Entity
+// Mirrors db/migration, which owns the schema
+@Table(indexes = {
+        // doctor day view, booked-slot calendar, overlap checks
+        @Index(name = "idx_appointment_doctor_time", columnList = "doctor_id, appointment_time"),
+        // status filters per patient, ordered by time
+        @Index(name = "idx_appointment_patient_status_time", columnList = "patient_id, status, appointment_time"),
+        // patient history pages, keyset on (appointment_time, id); InnoDB appends the id
+        @Index(name = "idx_appointment_patient_time", columnList = "patient_id, appointment_time"),
+        // status sweeper: elapsed rows still marked upcoming
+        @Index(name = "idx_appointment_status_time", columnList = "status, appointment_time")
+})
 public class Appointment {
 
+    // Every appointment lasts one hour; slot claims, the slot calendar and overlap checks all use this
+    public static final int DURATION_MINUTES = 60;
+
+    // Validation group for new bookings only; historic rows (imports, elapsed appointments) are in the past
+    public interface Booking {
+    }
+
+    // Pooled ids: Hibernate reserves 50 at a time, which keeps JDBC insert batching on
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointment_seq")
+    @SequenceGenerator(name = "appointment_seq", sequenceName = "appointment_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -24,7 +44,7 @@ public class Appointment {
     private Patient patient;
 
     @NotNull(message = "Appointment time is required")
-    @Future(message = "Appointment time must be in the future")
+    @Future(message = "Appointment time must be in the future", groups = Booking.class)
     private LocalDateTime appointmentTime;
 
     @NotNull(message = "Status is required")
@@ -32,7 +52,7 @@ public class Appointment {
 
     @Transient
     public LocalDateTime getEndTime() {
-        return appointmentTime.plusHours(1);
+        return appointmentTime.plusMinutes(DURATION_MINUTES);
     }
 
     @Transient
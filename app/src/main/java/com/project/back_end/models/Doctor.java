@@ -8,6 +8,7 @@ import jakarta.validation.constraints.*;
 import java.util.List;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_doctor_email", columnNames = "email"))
 public class Doctor {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
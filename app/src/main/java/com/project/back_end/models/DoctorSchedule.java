@@ -0,0 +1,98 @@
+package com.project.back_end.models;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.DayOfWeek;
+
+// Recurring weekly template for one doctor, stored as a single row.
+// Bit i of a weekday mask = a slot starting i * slotMinutes after midnight; each slot lasts
+// one appointment. slotMinutes is the spacing of starts and at least 30, so a day fits in one long.
+@Entity
+public class DoctorSchedule {
+
+    @Id
+    private Long doctorId;
+
+    @NotNull(message = "Slot spacing is required")
+    @Min(value = 30, message = "Slot spacing must be at least 30 minutes")
+    private int slotMinutes = 60;
+
+    private long mondayMask;
+    private long tuesdayMask;
+    private long wednesdayMask;
+    private long thursdayMask;
+    private long fridayMask;
+    private long saturdayMask;
+    private long sundayMask;
+
+    // Denormalized for SQL filtering: any weekly slot before / from noon
+    private boolean morning;
+    private boolean afternoon;
+
+    public DoctorSchedule() {
+    }
+
+    public DoctorSchedule(Long doctorId, int slotMinutes) {
+        this.doctorId = doctorId;
+        this.slotMinutes = slotMinutes;
+    }
+
+    public long getMask(DayOfWeek day) {
+        return switch (day) {
+            case MONDAY -> mondayMask;
+            case TUESDAY -> tuesdayMask;
+            case WEDNESDAY -> wednesdayMask;
+            case THURSDAY -> thursdayMask;
+            case FRIDAY -> fridayMask;
+            case SATURDAY -> saturdayMask;
+            case SUNDAY -> sundayMask;
+        };
+    }
+
+    public void setMask(DayOfWeek day, long mask) {
+        switch (day) {
+            case MONDAY -> mondayMask = mask;
+            case TUESDAY -> tuesdayMask = mask;
+            case WEDNESDAY -> wednesdayMask = mask;
+            case THURSDAY -> thursdayMask = mask;
+            case FRIDAY -> fridayMask = mask;
+            case SATURDAY -> saturdayMask = mask;
+            case SUNDAY -> sundayMask = mask;
+        }
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public int getSlotMinutes() {
+        return slotMinutes;
+    }
+
+    public void setSlotMinutes(int slotMinutes) {
+        this.slotMinutes = slotMinutes;
+    }
+
+    public boolean isMorning() {
+        return morning;
+    }
+
+    public void setMorning(boolean morning) {
+        this.morning = morning;
+    }
+
+    public boolean isAfternoon() {
+        return afternoon;
+    }
+
+    public void setAfternoon(boolean afternoon) {
+        this.afternoon = afternoon;
+    }
+}
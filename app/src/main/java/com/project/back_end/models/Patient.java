@@ -8,9 +8,15 @@ import jakarta.validation.constraints.*;
 
 
 @Entity
+@Table(uniqueConstraints = {
+        @UniqueConstraint(name = "uk_patient_email", columnNames = "email"),
+        @UniqueConstraint(name = "uk_patient_phone", columnNames = "phone")
+})
 public class Patient {
+    // Pooled ids: Hibernate reserves 50 at a time, which keeps JDBC insert batching on
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patient_seq")
+    @SequenceGenerator(name = "patient_seq", sequenceName = "patient_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "Name is required")
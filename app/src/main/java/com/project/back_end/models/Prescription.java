@@ -1,11 +1,27 @@
 package com.project.back_end.models;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.TextScore;
 
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 
-@Document(collation = "prescriptions")
+import java.time.LocalDateTime;
+
+// Indexes declared here are created at startup by MongoIndexInitializer
+// language "none": the text index keeps words as written (no stemming or stop words), so the
+// terms in prescription_terms match the index exactly
+@Document(collection = "prescriptions", language = "none")
+// History pages per patient / per doctor, newest first, keyset on (prescribedAt, _id)
+@CompoundIndexes({
+        @CompoundIndex(name = "idx_prescription_patient_time", def = "{'patientId': 1, 'prescribedAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "idx_prescription_doctor_time", def = "{'doctorId': 1, 'prescribedAt': -1, '_id': -1}")
+})
 public class Prescription {
 
     @Id
@@ -16,10 +32,12 @@ public class Prescription {
     private String patientName;
 
     @NotNull(message = "Appointment ID is required")
+    @Indexed(name = "idx_prescription_appointment")
     private Long appointmentId;
 
     @NotNull(message = "Medication name is required")
     @Size(min = 3, max = 100, message = "Medication name must be between 3 and 100 characters")
+    @TextIndexed(weight = 10)
     private String medication;
 
     @NotNull(message = "Dosage is required")
@@ -27,8 +45,19 @@ public class Prescription {
     private String dosage;
 
     @Size(max = 200, message = "Doctor notes cannot exceed 200 characters")
+    @TextIndexed
     private String doctorNotes;
 
+    // Copied from the appointment when the prescription is saved, so history needs no MySQL join
+    private Long patientId;
+    private Long doctorId;
+    private LocalDateTime prescribedAt;
+
+    // Relevance, only set on search results; never stored
+    @TextScore
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double score;
+
     public Prescription() {
     }
 
@@ -87,4 +116,32 @@ public class Prescription {
     public void setDoctorNotes(String doctorNotes) {
         this.doctorNotes = doctorNotes;
     }
+
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(Long patientId) {
+        this.patientId = patientId;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public LocalDateTime getPrescribedAt() {
+        return prescribedAt;
+    }
+
+    public void setPrescribedAt(LocalDateTime prescribedAt) {
+        this.prescribedAt = prescribedAt;
+    }
+
+    public Double getScore() {
+        return score;
+    }
 }
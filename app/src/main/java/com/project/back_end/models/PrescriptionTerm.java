@@ -0,0 +1,45 @@
+package com.project.back_end.models;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.List;
+
+// One word seen in a prescription's medication or doctor notes, maintained by PrescriptionTermIndexer.
+// Lets a search expand a prefix or a misspelt word into the exact words of the text index.
+@Document(collection = "prescription_terms")
+public class PrescriptionTerm {
+
+    // The word itself, lowercase; prefix lookups are range scans of _id
+    @Id
+    private String term;
+
+    // The word with one character removed, each way; a query word sharing one of these
+    // (or being one) is within one edit of it
+    @Indexed(name = "idx_term_deletes")
+    private List<String> deletes;
+
+    public PrescriptionTerm() {
+    }
+
+    public PrescriptionTerm(String term, List<String> deletes) {
+        this.term = term;
+        this.deletes = deletes;
+    }
+
+    public String getTerm() {
+        return term;
+    }
+
+    public void setTerm(String term) {
+        this.term = term;
+    }
+
+    public List<String> getDeletes() {
+        return deletes;
+    }
+
+    public void setDeletes(List<String> deletes) {
+        this.deletes = deletes;
+    }
+}
@@ -0,0 +1,71 @@
+package com.project.back_end.models;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDate;
+
+// Date-specific override of a doctor's weekly template (holiday, leave, extra hours).
+// mask uses the same bit layout as DoctorSchedule; 0 means no slots that day.
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"doctor_id", "exception_date"}))
+public class ScheduleException {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull(message = "Doctor is required")
+    @Column(name = "doctor_id")
+    private Long doctorId;
+
+    @NotNull(message = "Date is required")
+    @Column(name = "exception_date")
+    private LocalDate date;
+
+    private long mask;
+
+    @Size(max = 100, message = "Reason cannot exceed 100 characters")
+    private String reason;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public long getMask() {
+        return mask;
+    }
+
+    public void setMask(long mask) {
+        this.mask = mask;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
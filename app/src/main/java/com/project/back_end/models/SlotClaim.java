@@ -0,0 +1,89 @@
+package com.project.back_end.models;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// One quarter-hour cell of a doctor's calendar held by an appointment.
+// The primary key (doctor_id, slot_start) is the booking lock: two overlapping appointments
+// always need a common cell, so the second insert fails with a duplicate key.
+@Entity
+@IdClass(SlotClaim.Key.class)
+@Table(name = "slot_claim", indexes = {
+        @Index(name = "idx_slot_claim_appointment", columnList = "appointment_id"),
+        // status sweeper: cells that have passed
+        @Index(name = "idx_slot_claim_start", columnList = "slot_start")
+})
+public class SlotClaim implements Persistable<SlotClaim.Key> {
+
+    @Id
+    @Column(name = "doctor_id")
+    private Long doctorId;
+
+    @Id
+    @Column(name = "slot_start")
+    private LocalDateTime slotStart;
+
+    @Column(name = "appointment_id", nullable = false)
+    private Long appointmentId;
+
+    public SlotClaim() {
+    }
+
+    public SlotClaim(Long doctorId, LocalDateTime slotStart, Long appointmentId) {
+        this.doctorId = doctorId;
+        this.slotStart = slotStart;
+        this.appointmentId = appointmentId;
+    }
+
+    // Claims are only ever inserted or deleted, so save() can persist without a SELECT first
+    @Override
+    public Key getId() {
+        return new Key(doctorId, slotStart);
+    }
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public LocalDateTime getSlotStart() {
+        return slotStart;
+    }
+
+    public Long getAppointmentId() {
+        return appointmentId;
+    }
+
+    public static class Key implements Serializable {
+        private Long doctorId;
+        private LocalDateTime slotStart;
+
+        public Key() {
+        }
+
+        public Key(Long doctorId, LocalDateTime slotStart) {
+            this.doctorId = doctorId;
+            this.slotStart = slotStart;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key k)) return false;
+            return Objects.equals(doctorId, k.doctorId) && Objects.equals(slotStart, k.slotStart);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(doctorId, slotStart);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.project.back_end.models;
+
+import jakarta.persistence.*;
+
+// Tokens issued to this subject at or before revokedAtMillis are rejected.
+@Entity
+@Table(name = "token_revocation", indexes = @Index(name = "idx_token_revocation_revoked_at", columnList = "revoked_at_millis"))
+public class TokenRevocation {
+
+    @Id
+    private String subject;
+
+    @Column(name = "revoked_at_millis", nullable = false)
+    private long revokedAtMillis;
+
+    public TokenRevocation() {
+    }
+
+    public TokenRevocation(String subject, long revokedAtMillis) {
+        this.subject = subject;
+        this.revokedAtMillis = revokedAtMillis;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public long getRevokedAtMillis() {
+        return revokedAtMillis;
+    }
+}
@@ -1,6 +1,8 @@
 package com.project.back_end.repo;
 
+import com.project.back_end.DTO.AppointmentDTO;
 import com.project.back_end.models.Appointment;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -9,73 +11,154 @@ import org.springframework.stereotype.Repository;
 
 import jakarta.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
 
-    @Query("""
-        SELECT DISTINCT a FROM Appointment a
-        LEFT JOIN FETCH a.doctor d
-        LEFT JOIN FETCH d.availableTimes
+    // Read paths select the ten AppointmentDTO columns directly: no entity hydration, no collection fetch
+    String DTO_SELECT = """
+        SELECT new com.project.back_end.DTO.AppointmentDTO(
+            a.id, d.id, d.name, p.id, p.name, p.email, p.phone, p.address, a.appointmentTime, a.status)
+        FROM Appointment a
+        JOIN a.doctor d
+        JOIN a.patient p
+    """;
+
+    // Doctor day view; half-open [start, end)
+    @Query(DTO_SELECT + """
         WHERE d.id = :doctorId
-        AND a.appointmentTime BETWEEN :start AND :end
+        AND a.appointmentTime >= :start AND a.appointmentTime < :end
+        ORDER BY a.appointmentTime
     """)
-    List<Appointment> findByDoctorIdAndAppointmentTimeBetween(
+    List<AppointmentDTO> findDTOsByDoctorIdBetween(
             @Param("doctorId") Long doctorId,
             @Param("start") LocalDateTime start,
             @Param("end") LocalDateTime end
     );
 
-    @Query("""
-        SELECT DISTINCT a FROM Appointment a
-        LEFT JOIN FETCH a.doctor d
-        LEFT JOIN FETCH a.patient p
+    @Query(DTO_SELECT + """
         WHERE d.id = :doctorId
         AND LOWER(p.name) LIKE LOWER(CONCAT('%', :patientName, '%'))
-        AND a.appointmentTime BETWEEN :start AND :end
+        AND a.appointmentTime >= :start AND a.appointmentTime < :end
+        ORDER BY a.appointmentTime
     """)
-    List<Appointment> findByDoctorIdAndPatient_NameContainingIgnoreCaseAndAppointmentTimeBetween(
+    List<AppointmentDTO> findDTOsByDoctorIdAndPatientNameBetween(
             @Param("doctorId") Long doctorId,
             @Param("patientName") String patientName,
             @Param("start") LocalDateTime start,
             @Param("end") LocalDateTime end
     );
 
+    // Start times only, for BookedSlotCalendar; half-open [start, end), no joins
+    @Query("""
+        SELECT a.appointmentTime FROM Appointment a
+        WHERE a.doctor.id = :doctorId
+        AND a.appointmentTime >= :start AND a.appointmentTime < :end
+    """)
+    List<LocalDateTime> findAppointmentTimesByDoctorIdBetween(
+            @Param("doctorId") Long doctorId,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end
+    );
+
+    // Next chunk of a doctor's appointment ids (doctor_id foreign key index)
+    @Query("SELECT a.id FROM Appointment a WHERE a.doctor.id = :doctorId ORDER BY a.id")
+    List<Long> findIdsByDoctorId(@Param("doctorId") Long doctorId, Limit limit);
+
+    // Rows of [id, doctorId, patientId] (foreign key columns, no joins) for prescription denormalisation
+    @Query("SELECT a.id, a.doctor.id, a.patient.id FROM Appointment a WHERE a.id IN :ids")
+    List<Object[]> findParticipantsByIds(@Param("ids") Collection<Long> ids);
+
+    // Set-based delete; the derived deleteAllBy* would load and remove every entity one by one
     @Modifying
     @Transactional
-    void deleteAllByDoctorId(Long doctorId);
+    @Query("DELETE FROM Appointment a WHERE a.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
 
     List<Appointment> findByPatientId(Long patientId);
 
-    List<Appointment> findByPatient_IdAndStatusOrderByAppointmentTimeAsc(Long patientId, int status);
+    // Patient history pages: keyset on (appointmentTime, id), first page after AppointmentCursor.START.
+    // Served by idx_appointment_patient_time / idx_appointment_patient_status_time.
+    @Query(DTO_SELECT + """
+        WHERE p.id = :patientId
+        AND (a.appointmentTime > :afterTime OR (a.appointmentTime = :afterTime AND a.id > :afterId))
+        ORDER BY a.appointmentTime, a.id
+    """)
+    List<AppointmentDTO> findDTOPageByPatientId(
+            @Param("patientId") Long patientId,
+            @Param("afterTime") LocalDateTime afterTime,
+            @Param("afterId") Long afterId,
+            Limit limit
+    );
 
-    @Query("""
-        SELECT a FROM Appointment a
-        JOIN a.doctor d
-        WHERE LOWER(d.name) LIKE LOWER(CONCAT('%', :doctorName, '%'))
-        AND a.patient.id = :patientId
+    @Query(DTO_SELECT + """
+        WHERE p.id = :patientId
+        AND a.status = :status
+        AND (a.appointmentTime > :afterTime OR (a.appointmentTime = :afterTime AND a.id > :afterId))
+        ORDER BY a.appointmentTime, a.id
+    """)
+    List<AppointmentDTO> findDTOPageByPatientIdAndStatus(
+            @Param("patientId") Long patientId,
+            @Param("status") int status,
+            @Param("afterTime") LocalDateTime afterTime,
+            @Param("afterId") Long afterId,
+            Limit limit
+    );
+
+    @Query(DTO_SELECT + """
+        WHERE p.id = :patientId
+        AND LOWER(d.name) LIKE LOWER(CONCAT('%', :doctorName, '%'))
+        AND (a.appointmentTime > :afterTime OR (a.appointmentTime = :afterTime AND a.id > :afterId))
+        ORDER BY a.appointmentTime, a.id
     """)
-    List<Appointment> filterByDoctorNameAndPatientId(
+    List<AppointmentDTO> filterDTOPageByDoctorNameAndPatientId(
             @Param("doctorName") String doctorName,
-            @Param("patientId") Long patientId
+            @Param("patientId") Long patientId,
+            @Param("afterTime") LocalDateTime afterTime,
+            @Param("afterId") Long afterId,
+            Limit limit
     );
 
-    @Query("""
-        SELECT a FROM Appointment a
-        JOIN a.doctor d
-        WHERE LOWER(d.name) LIKE LOWER(CONCAT('%', :doctorName, '%'))
-        AND a.patient.id = :patientId
+    @Query(DTO_SELECT + """
+        WHERE p.id = :patientId
         AND a.status = :status
+        AND LOWER(d.name) LIKE LOWER(CONCAT('%', :doctorName, '%'))
+        AND (a.appointmentTime > :afterTime OR (a.appointmentTime = :afterTime AND a.id > :afterId))
+        ORDER BY a.appointmentTime, a.id
     """)
-    List<Appointment> filterByDoctorNameAndPatientIdAndStatus(
+    List<AppointmentDTO> filterDTOPageByDoctorNameAndPatientIdAndStatus(
             @Param("doctorName") String doctorName,
             @Param("patientId") Long patientId,
-            @Param("status") int status
+            @Param("status") int status,
+            @Param("afterTime") LocalDateTime afterTime,
+            @Param("afterId") Long afterId,
+            Limit limit
     );
 
     @Modifying
     @Transactional
     @Query("UPDATE Appointment a SET a.status = :status WHERE a.id = :id")
     void updateStatus(@Param("status") int status, @Param("id") long id);
+
+    // Keyset page of elapsed appointments still marked upcoming, oldest first; rows are [id, appointmentTime].
+    // Served by idx_appointment_status_time.
+    @Query("""
+        SELECT a.id, a.appointmentTime FROM Appointment a
+        WHERE a.status = 0 AND a.appointmentTime < :cutoff
+        AND (a.appointmentTime > :afterTime OR (a.appointmentTime = :afterTime AND a.id > :afterId))
+        ORDER BY a.appointmentTime, a.id
+    """)
+    List<Object[]> findElapsedAfter(
+            @Param("cutoff") LocalDateTime cutoff,
+            @Param("afterTime") LocalDateTime afterTime,
+            @Param("afterId") Long afterId,
+            Limit limit
+    );
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Appointment a SET a.status = 1 WHERE a.id IN :ids AND a.status = 0")
+    int markPast(@Param("ids") Collection<Long> ids);
 }
@@ -1,32 +1,40 @@
 package com.project.back_end.repo;
 
+import com.project.back_end.DTO.DoctorListingDTO;
 import com.project.back_end.models.Doctor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface DoctorRepository extends JpaRepository<Doctor, Long> {
+public interface DoctorRepository extends JpaRepository<Doctor, Long>, JpaSpecificationExecutor<Doctor> {
 
     Doctor findByEmail(String email);
 
     boolean existsByEmail(String email);
 
-    @Query("SELECT d FROM Doctor d WHERE d.name LIKE CONCAT('%', :name, '%')")
-    List<Doctor> findByNameLike(@Param("name") String name);
+    @Query("SELECT d.id FROM Doctor d WHERE d.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 
+    @Query("SELECT DISTINCT d FROM Doctor d LEFT JOIN FETCH d.availableTimes")
+    List<Doctor> findAllWithAvailableTimes();
+
+    // Keyset page of the doctor listing: only the columns the listing shows, ordered by id
     @Query("""
-        SELECT DISTINCT d FROM Doctor d
-        WHERE LOWER(d.name) LIKE LOWER(CONCAT('%', :name, '%'))
-        AND LOWER(d.specialty) = LOWER(:specialty)
+        SELECT new com.project.back_end.DTO.DoctorListingDTO(d.id, d.name, d.specialty, d.email, d.phone)
+        FROM Doctor d
+        WHERE d.id > :afterId
+        ORDER BY d.id
     """)
-    List<Doctor> findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(
-            @Param("name") String name,
-            @Param("specialty") String specialty
-    );
+    List<DoctorListingDTO> findListingAfter(@Param("afterId") Long afterId, Limit limit);
 
-    List<Doctor> findBySpecialtyIgnoreCase(String specialty);
+    // All slots for a batch of doctors in one query: rows of [doctorId, time]
+    @Query("SELECT d.id, t FROM Doctor d JOIN d.availableTimes t WHERE d.id IN :ids")
+    List<Object[]> findAvailableTimesByDoctorIds(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,75 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.DoctorSchedule;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Composable criteria for doctor searches. Any subset of name / specialty / AM-PM
+// becomes a single SELECT: availability is an EXISTS over the doctor's schedule flags
+// and the matching doctors' times are fetch-joined in the same statement.
+public final class DoctorSpecifications {
+
+    private DoctorSpecifications() {
+    }
+
+    // Null or blank arguments are left out of the query
+    public static Specification<Doctor> matching(String name, String specialty, String amOrPm) {
+        List<Specification<Doctor>> specs = new ArrayList<>();
+        specs.add(fetchAvailableTimes());
+        if (hasText(name)) specs.add(nameContains(name));
+        if (hasText(specialty)) specs.add(specialtyIs(specialty));
+        if (hasText(amOrPm)) specs.add(availableIn(amOrPm));
+        return Specification.allOf(specs);
+    }
+
+    public static Specification<Doctor> nameContains(String name) {
+        String pattern = "%" + name.toLowerCase() + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get("name")), pattern);
+    }
+
+    public static Specification<Doctor> specialtyIs(String specialty) {
+        String value = specialty.toLowerCase();
+        return (root, query, cb) -> cb.equal(cb.lower(root.get("specialty")), value);
+    }
+
+    // Doctors whose weekly schedule has a slot starting before (AM) / from (PM) noon;
+    // any other value leaves the query unfiltered
+    public static Specification<Doctor> availableIn(String amOrPm) {
+        String target = amOrPm.trim().toUpperCase();
+        if (!target.equals("AM") && !target.equals("PM")) {
+            return (root, query, cb) -> null;
+        }
+        String flag = target.equals("AM") ? "morning" : "afternoon";
+
+        return (root, query, cb) -> {
+            Subquery<Long> schedules = query.subquery(Long.class);
+            Root<DoctorSchedule> schedule = schedules.from(DoctorSchedule.class);
+            schedules.select(schedule.get("doctorId"))
+                    .where(cb.equal(schedule.get("doctorId"), root.get("id")),
+                           cb.isTrue(schedule.get(flag)));
+            return cb.exists(schedules);
+        };
+    }
+
+    // Loads availableTimes with the doctors instead of one lazy query per doctor
+    public static Specification<Doctor> fetchAvailableTimes() {
+        return (root, query, cb) -> {
+            Class<?> type = query.getResultType();
+            if (type != Long.class && type != long.class) {
+                root.fetch("availableTimes", JoinType.LEFT);
+                query.distinct(true);
+            }
+            return null;
+        };
+    }
+
+    private static boolean hasText(String s) {
+        return s != null && !s.isBlank() && !"null".equalsIgnoreCase(s.trim());
+    }
+}
@@ -1,14 +1,31 @@
 package com.project.back_end.repo;
 import com.project.back_end.models.Patient;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface PatientRepository extends JpaRepository<Patient, Long> {
     Patient findByEmail(String email);
 
-    Patient findByEmailOrPhone(String email, String phone);
+    // Exact duplicate check behind PatientContactFilter; each side is a unique-key lookup
+    boolean existsByEmailOrPhone(String email, String phone);
 
     boolean existsByEmail(String email);
+
+    @Query("SELECT p.email FROM Patient p WHERE p.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query("SELECT p.id FROM Patient p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Keyset page of [id, email, phone] for rebuilding PatientContactFilter
+    @Query("SELECT p.id, p.email, p.phone FROM Patient p WHERE p.id > :afterId ORDER BY p.id")
+    List<Object[]> findContactsAfter(@Param("afterId") Long afterId, Limit limit);
 }
 
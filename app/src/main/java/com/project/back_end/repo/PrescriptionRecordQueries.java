@@ -0,0 +1,18 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.Prescription;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+// Prescription reads with a server-side time limit (maxTimeMS), so a slow query is stopped by Mongo
+// instead of running on after its caller stopped waiting. Implemented by PrescriptionRecordQueriesImpl.
+public interface PrescriptionRecordQueries {
+
+    // A patient's whole medication record (idx_prescription_patient_time)
+    List<Prescription> findByPatientId(Long patientId, Duration maxTime);
+
+    // One find with $in for a page of appointments (idx_prescription_appointment)
+    List<Prescription> findByAppointmentIdIn(Collection<Long> appointmentIds, Duration maxTime);
+}
@@ -0,0 +1,32 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.Prescription;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+class PrescriptionRecordQueriesImpl implements PrescriptionRecordQueries {
+
+    private final MongoTemplate mongoTemplate;
+
+    PrescriptionRecordQueriesImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<Prescription> findByPatientId(Long patientId, Duration maxTime) {
+        return mongoTemplate.find(new Query(Criteria.where("patientId").is(patientId)).maxTime(maxTime),
+                Prescription.class);
+    }
+
+    @Override
+    public List<Prescription> findByAppointmentIdIn(Collection<Long> appointmentIds, Duration maxTime) {
+        if (appointmentIds.isEmpty()) return List.of();
+        return mongoTemplate.find(new Query(Criteria.where("appointmentId").in(appointmentIds)).maxTime(maxTime),
+                Prescription.class);
+    }
+}
@@ -4,10 +4,17 @@ import com.project.back_end.models.Prescription;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface PrescriptionRepository extends MongoRepository<Prescription, String> {
+public interface PrescriptionRepository extends MongoRepository<Prescription, String>, PrescriptionRecordQueries {
     List<Prescription> findByAppointmentId(Long appointmentId);
+
+    // One find with $in for a whole page of appointments
+    List<Prescription> findByAppointmentIdIn(Collection<Long> appointmentIds);
+
+    // Single deleteMany with $in, no documents loaded
+    long deleteByAppointmentIdIn(Collection<Long> appointmentIds);
 }
 
@@ -0,0 +1,17 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.Prescription;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+
+// Non-blocking counterpart of PrescriptionRepository, used by ReactivePrescriptionService
+@Repository
+public interface ReactivePrescriptionRepository extends ReactiveMongoRepository<Prescription, String> {
+    Flux<Prescription> findByAppointmentId(Long appointmentId);
+
+    // One find with $in; documents are pulled from the cursor as the subscriber requests them
+    Flux<Prescription> findByAppointmentIdIn(Collection<Long> appointmentIds);
+}
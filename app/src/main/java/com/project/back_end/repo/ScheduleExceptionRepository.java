@@ -0,0 +1,24 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.ScheduleException;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.stereotype.Repository;
+
+import jakarta.transaction.Transactional;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ScheduleExceptionRepository extends JpaRepository<ScheduleException, Long> {
+
+    List<ScheduleException> findByDoctorIdAndDateGreaterThanEqual(Long doctorId, LocalDate from);
+
+    List<ScheduleException> findByDateGreaterThanEqual(LocalDate from);
+
+    ScheduleException findByDoctorIdAndDate(Long doctorId, LocalDate date);
+
+    @Modifying
+    @Transactional
+    void deleteByDoctorId(Long doctorId);
+}
@@ -0,0 +1,46 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.SlotClaim;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SlotClaimRepository extends JpaRepository<SlotClaim, SlotClaim.Key> {
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SlotClaim c WHERE c.appointmentId = :appointmentId")
+    int deleteByAppointmentId(@Param("appointmentId") Long appointmentId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SlotClaim c WHERE c.appointmentId IN :appointmentIds")
+    int deleteByAppointmentIds(@Param("appointmentIds") Collection<Long> appointmentIds);
+
+    // Cells that ended before the cutoff can no longer collide with a booking
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SlotClaim c WHERE c.slotStart < :before")
+    int deleteCellsStartingBefore(@Param("before") LocalDateTime before);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SlotClaim c WHERE c.doctorId = :doctorId")
+    int deleteByDoctorId(@Param("doctorId") Long doctorId);
+
+    // Upcoming appointments that hold no claims yet (rows written before claims existed)
+    @Query("""
+        SELECT a.id, a.doctor.id, a.appointmentTime FROM Appointment a
+        WHERE a.appointmentTime >= :from
+        AND NOT EXISTS (SELECT c FROM SlotClaim c WHERE c.appointmentId = a.id)
+    """)
+    List<Object[]> findUnclaimedAppointmentsFrom(@Param("from") LocalDateTime from);
+}
@@ -0,0 +1,20 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.transaction.Transactional;
+
+@Repository
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, String> {
+
+    // Revocations older than the token lifetime can no longer match a live token
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM TokenRevocation r WHERE r.revokedAtMillis < :cutoff")
+    int deleteOlderThan(@Param("cutoff") long cutoff);
+}
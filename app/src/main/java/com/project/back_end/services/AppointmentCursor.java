@@ -0,0 +1,46 @@
+package com.project.back_end.services;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Position in a patient's appointment list, ordered by (appointmentTime, id).
+// Handed to clients as an opaque URL-safe token; the next page starts strictly after it.
+final class AppointmentCursor {
+
+    // Lower bound for the first page (MySQL DATETIME starts at year 1000)
+    static final AppointmentCursor START = new AppointmentCursor(LocalDateTime.of(1000, 1, 1, 0, 0), 0L);
+
+    private final LocalDateTime time;
+    private final Long id;
+
+    AppointmentCursor(LocalDateTime time, Long id) {
+        this.time = time;
+        this.id = id;
+    }
+
+    LocalDateTime getTime() {
+        return time;
+    }
+
+    Long getId() {
+        return id;
+    }
+
+    String encode() {
+        String raw = time + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // null for a missing token, IllegalArgumentException for one this class did not produce
+    static AppointmentCursor decode(String token) {
+        if (token == null || token.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            return new AppointmentCursor(LocalDateTime.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
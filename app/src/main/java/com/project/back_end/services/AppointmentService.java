@@ -1,14 +1,15 @@
 package com.project.back_end.services;
 import com.project.back_end.DTO.AppointmentDTO;
 import com.project.back_end.models.Appointment;
-import com.project.back_end.models.Doctor;
-import com.project.back_end.models.Patient;
 import com.project.back_end.repo.AppointmentRepository;
 import com.project.back_end.repo.DoctorRepository;
 import com.project.back_end.repo.PatientRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -16,34 +17,74 @@ import java.util.*;
 
 @Service
 public class AppointmentService {
+    public static final String SLOT_TAKEN = "Selected time is not available";
+    private static final String DOCTOR_NOT_FOUND = "Invalid doctor ID";
+
     private final AppointmentRepository appointmentRepository;
     private final PatientRepository patientRepository;
     private final DoctorRepository doctorRepository;
-    private final TokenService tokenService;
+    private final AuthenticatedPrincipal principal;
+    private final BookedSlotCalendar bookedSlotCalendar;
+    private final SlotClaimService slotClaimService;
+    private final DoctorDirectory doctorDirectory;
+    private final ScheduleService scheduleService;
+    private final TransactionTemplate transactionTemplate;
 
     public AppointmentService(AppointmentRepository appointmentRepository,
                               PatientRepository patientRepository,
                               DoctorRepository doctorRepository,
-                              TokenService tokenService) {
+                              AuthenticatedPrincipal principal,
+                              BookedSlotCalendar bookedSlotCalendar,
+                              SlotClaimService slotClaimService,
+                              DoctorDirectory doctorDirectory,
+                              ScheduleService scheduleService,
+                              TransactionTemplate transactionTemplate) {
         this.appointmentRepository = appointmentRepository;
         this.patientRepository = patientRepository;
         this.doctorRepository = doctorRepository;
-        this.tokenService = tokenService;
+        this.principal = principal;
+        this.bookedSlotCalendar = bookedSlotCalendar;
+        this.slotClaimService = slotClaimService;
+        this.doctorDirectory = doctorDirectory;
+        this.scheduleService = scheduleService;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    // Booking pipeline: every entity is resolved at most once and the slot is checked by one
+    // conflict lookup (the in-memory calendar, re-read from MySQL only when it reports a conflict),
+    // then the appointment and its slot claims are inserted in one transaction.
+    // The claims, not the checks, stop concurrent double bookings.
+    // "patientId" is the caller's verified patient id (may be null); it spares the patient lookup.
+    // Returns 1 booked, 0 time not available, -1 doctor not found, -3 invalid request, -2 failed.
+    public int bookAppointment(Appointment appointment, Long patientId) {
+        return book(appointment, patientId).code();
     }
-    public int bookAppointment(Appointment appointment) {
+
+    // Same as bookAppointment, plus the reason for a rejected request (-3) to show the caller
+    public Booking book(Appointment appointment, Long patientId) {
         try {
-            String validationError = validateAppointment(appointment, false);
-            if (validationError != null) {
-                return 0;
+            String rejection = validateAppointment(appointment, null, patientId);
+            if (rejection != null) {
+                if (SLOT_TAKEN.equals(rejection)) return new Booking(0, rejection);
+                if (DOCTOR_NOT_FOUND.equals(rejection)) return new Booking(-1, rejection);
+                return new Booking(-3, rejection);
             }
-            appointmentRepository.save(appointment);
-            return 1;
+
+            transactionTemplate.executeWithoutResult(status -> {
+                appointmentRepository.save(appointment);
+                slotClaimService.claim(appointment);
+            });
+            bookedSlotCalendar.onBooked(appointment.getDoctor().getId(), appointment.getAppointmentTime());
+            return new Booking(1, null);
+        } catch (DataIntegrityViolationException | PessimisticLockingFailureException e) {
+            // Duplicate claim key (or a deadlock victim racing for the same cells)
+            return new Booking(0, SLOT_TAKEN);
         } catch (Exception e) {
-            return 0;
+            return new Booking(-2, null);
         }
     }
 
-    public ResponseEntity<Map<String, String>> updateAppointment(Appointment appointment) {
+    public ResponseEntity<Map<String, String>> updateAppointment(Appointment appointment, Long patientId) {
         Map<String, String> res = new HashMap<>();
 
         if (appointment == null || appointment.getId() == null) {
@@ -51,22 +92,43 @@ public class AppointmentService {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res);
         }
 
-        Optional<Appointment> existingOpt = appointmentRepository.findById(appointment.getId());
-        if (existingOpt.isEmpty()) {
-            res.put("message", "Appointment not found");
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(res);
-        }
-
-        String validationError = validateAppointment(appointment, true);
-        if (validationError != null) {
-            res.put("message", validationError);
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res);
-        }
-
         try {
-            appointmentRepository.save(appointment);
+            // The stored row is loaded once and changed in place, so no merge() re-select;
+            // old claims are released and new ones taken in the same transaction
+            Rescheduled result = transactionTemplate.execute(status -> {
+                Appointment existing = appointmentRepository.findById(appointment.getId()).orElse(null);
+                if (existing == null) return null;
+
+                Rescheduled r = new Rescheduled(existing.getDoctor().getId(), existing.getAppointmentTime(),
+                        validateAppointment(appointment, existing, patientId));
+                if (r.rejection() != null) return r;
+
+                slotClaimService.release(existing.getId());
+                existing.setDoctor(doctorRepository.getReferenceById(appointment.getDoctor().getId()));
+                existing.setPatient(patientRepository.getReferenceById(appointment.getPatient().getId()));
+                existing.setAppointmentTime(appointment.getAppointmentTime());
+                existing.setStatus(appointment.getStatus());
+                slotClaimService.claim(existing);
+                return r;
+            });
+
+            if (result == null) {
+                res.put("message", "Appointment not found");
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(res);
+            }
+            if (result.rejection() != null) {
+                res.put("message", result.rejection());
+                HttpStatus status = SLOT_TAKEN.equals(result.rejection()) ? HttpStatus.CONFLICT : HttpStatus.BAD_REQUEST;
+                return ResponseEntity.status(status).body(res);
+            }
+
+            bookedSlotCalendar.onCancelled(result.doctorId(), result.time());
+            bookedSlotCalendar.onBooked(appointment.getDoctor().getId(), appointment.getAppointmentTime());
             res.put("message", "Appointment updated successfully");
             return ResponseEntity.ok(res);
+        } catch (DataIntegrityViolationException | PessimisticLockingFailureException e) {
+            res.put("message", SLOT_TAKEN);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(res);
         } catch (Exception e) {
             res.put("message", "Failed to update appointment");
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(res);
@@ -91,7 +153,11 @@ public class AppointmentService {
 
         // Ensure only the patient who booked can cancel
         try {
-            String patientEmailFromToken = tokenService.extractEmail(token);
+            String patientEmailFromToken = principal.resolve(token) ? principal.getEmail() : null;
+            if (patientEmailFromToken == null) {
+                res.put("message", "Invalid token");
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(res);
+            }
             if (appointment.getPatient() == null || appointment.getPatient().getEmail() == null) {
                 res.put("message", "Appointment has no patient information");
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res);
@@ -107,7 +173,11 @@ public class AppointmentService {
         }
 
         try {
-            appointmentRepository.delete(appointment);
+            transactionTemplate.executeWithoutResult(status -> {
+                appointmentRepository.delete(appointment);
+                slotClaimService.release(appointment.getId());
+            });
+            bookedSlotCalendar.onCancelled(appointment.getDoctor().getId(), appointment.getAppointmentTime());
             res.put("message", "Appointment cancelled successfully");
             return ResponseEntity.ok(res);
         } catch (Exception e) {
@@ -131,48 +201,40 @@ public class AppointmentService {
             return result;
         }
 
-        Doctor doctor;
-        try {
-            String doctorEmail = tokenService.extractEmail(token);
-            doctor = doctorRepository.findByEmail(doctorEmail);
-            if (doctor == null) {
-                result.put("appointments", List.of());
-                result.put("message", "Doctor not found");
-                return result;
-            }
-        } catch (Exception e) {
+        // Doctor id comes from the request's principal (token claim), no lookup needed
+        if (!principal.resolve(token)) {
             result.put("appointments", List.of());
             result.put("message", "Invalid token");
             return result;
         }
+        Long doctorId = principal.getDoctorId();
+        if (doctorId == null) {
+            result.put("appointments", List.of());
+            result.put("message", "Doctor not found");
+            return result;
+        }
 
         LocalDateTime start = date.atStartOfDay();
-        LocalDateTime end = date.plusDays(1).atStartOfDay().minusNanos(1);
+        LocalDateTime end = date.plusDays(1).atStartOfDay();
 
-        List<Appointment> appointments;
+        List<AppointmentDTO> dtoList;
         boolean hasPatientFilter = pname != null && !pname.isBlank() && !"null".equalsIgnoreCase(pname);
 
         if (hasPatientFilter) {
-            appointments = appointmentRepository
-                    .findByDoctorIdAndPatient_NameContainingIgnoreCaseAndAppointmentTimeBetween(
-                            doctor.getId(), pname, start, end
-                    );
+            dtoList = appointmentRepository.findDTOsByDoctorIdAndPatientNameBetween(doctorId, pname, start, end);
         } else {
-            appointments = appointmentRepository
-                    .findByDoctorIdAndAppointmentTimeBetween(doctor.getId(), start, end);
+            dtoList = appointmentRepository.findDTOsByDoctorIdBetween(doctorId, start, end);
         }
 
-        List<AppointmentDTO> dtoList = appointments.stream()
-                .map(this::toDTO)
-                .toList();
-
         result.put("appointments", dtoList);
         return result;
     }
 
     // ---------- Helpers ----------
 
-    private String validateAppointment(Appointment appointment, boolean isUpdate) {
+    // "existing" is the stored version when rescheduling, null when booking.
+    // Returns null when the appointment can be written, otherwise the reason it cannot.
+    private String validateAppointment(Appointment appointment, Appointment existing, Long patientId) {
         if (appointment == null) return "Appointment data is required";
 
         if (appointment.getDoctor() == null || appointment.getDoctor().getId() == null) {
@@ -188,54 +250,59 @@ public class AppointmentService {
             return "Appointment time must be in the future";
         }
 
-        Doctor doctor = doctorRepository.findById(appointment.getDoctor().getId()).orElse(null);
-        if (doctor == null) return "Invalid doctor ID";
+        // Doctors are answered by the in-memory directory; only a miss goes to MySQL
+        Long doctorId = appointment.getDoctor().getId();
+        if (doctorDirectory.get(doctorId) == null && !doctorRepository.existsById(doctorId)) {
+            return DOCTOR_NOT_FOUND;
+        }
 
-        Patient patient = patientRepository.findById(appointment.getPatient().getId()).orElse(null);
-        if (patient == null) return "Invalid patient ID";
+        // The caller's own id came from a verified token, and the stored patient was loaded with "existing"
+        Long requestedPatientId = appointment.getPatient().getId();
+        boolean knownPatient = requestedPatientId.equals(patientId)
+                || (existing != null && existing.getPatient() != null && requestedPatientId.equals(existing.getPatient().getId()));
+        if (!knownPatient && !patientRepository.existsById(requestedPatientId)) {
+            return "Invalid patient ID";
+        }
 
-        // Optional conflict check: avoid overlapping bookings for same doctor within 1 hour
         LocalDateTime apptStart = appointment.getAppointmentTime();
-        LocalDateTime apptEnd = apptStart.plusHours(1);
-
-        LocalDateTime dayStart = apptStart.toLocalDate().atStartOfDay();
-        LocalDateTime dayEnd = apptStart.toLocalDate().plusDays(1).atStartOfDay().minusNanos(1);
+        if (!scheduleService.offers(doctorId, apptStart)) return SLOT_TAKEN;
+
+        // The slot bitmap answers "free" from memory (the claims catch anything it missed); a cached
+        // conflict may be a cancellation made on another instance, so the day is re-read before rejecting
+        LocalDateTime ignore = existing != null && doctorId.equals(existing.getDoctor().getId())
+                ? existing.getAppointmentTime()
+                : null;
+        Boolean conflict = bookedSlotCalendar.hasConflict(doctorId, apptStart, ignore);
+        if (Boolean.TRUE.equals(conflict)) {
+            bookedSlotCalendar.reload(doctorId, apptStart.toLocalDate());
+            conflict = bookedSlotCalendar.hasConflict(doctorId, apptStart, ignore);
+        }
+        if (conflict == null) conflict = overlapsStoredAppointment(doctorId, apptStart, ignore);
 
-        List<Appointment> sameDay = appointmentRepository
-                .findByDoctorIdAndAppointmentTimeBetween(doctor.getId(), dayStart, dayEnd);
+        return conflict ? SLOT_TAKEN : null;
+    }
 
-        for (Appointment a : sameDay) {
-            if (isUpdate && appointment.getId() != null && a.getId().equals(appointment.getId())) {
+    // Any other start less than one appointment length away overlaps
+    private boolean overlapsStoredAppointment(Long doctorId, LocalDateTime start, LocalDateTime ignore) {
+        List<LocalDateTime> starts = appointmentRepository.findAppointmentTimesByDoctorIdBetween(
+                doctorId,
+                start.minusMinutes(Appointment.DURATION_MINUTES).plusNanos(1),
+                start.plusMinutes(Appointment.DURATION_MINUTES));
+
+        boolean skipped = false;
+        for (LocalDateTime t : starts) {
+            if (!skipped && t.equals(ignore)) {
+                skipped = true;
                 continue;
             }
-
-            LocalDateTime existingStart = a.getAppointmentTime();
-            LocalDateTime existingEnd = existingStart.plusHours(1);
-
-            boolean overlap = apptStart.isBefore(existingEnd) && existingStart.isBefore(apptEnd);
-            if (overlap) {
-                return "Appointment slot already booked";
-            }
+            return true;
         }
+        return false;
+    }
 
-        return null;
+    public record Booking(int code, String message) {
     }
 
-    private AppointmentDTO toDTO(Appointment a) {
-        Doctor d = a.getDoctor();
-        Patient p = a.getPatient();
-
-        return new AppointmentDTO(
-                a.getId(),
-                d != null ? d.getId() : null,
-                d != null ? d.getName() : null,
-                p != null ? p.getId() : null,
-                p != null ? p.getName() : null,
-                p != null ? p.getEmail() : null,
-                p != null ? p.getPhone() : null,
-                p != null ? p.getAddress() : null,
-                a.getAppointmentTime(),
-                a.getStatus()
-        );
+    private record Rescheduled(Long doctorId, LocalDateTime time, String rejection) {
     }
 }
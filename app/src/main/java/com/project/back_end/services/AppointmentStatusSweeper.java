@@ -0,0 +1,112 @@
+package com.project.back_end.services;
+
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.SlotClaimRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Moves appointments whose start time has passed from status 0 (upcoming) to 1 (past),
+// so the "past"/"future" filters stay a plain indexed equality on status.
+// Works in keyset chunks over (appointmentTime, id), one short transaction per chunk,
+// so row locks are held for milliseconds and never across a whole sweep.
+// Slot claims are dropped separately, by cell time, once a quarter-hour cell has fully passed:
+// an appointment that has started still holds the rest of its hour against overlapping bookings.
+@Component
+public class AppointmentStatusSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentStatusSweeper.class);
+
+    private final AppointmentRepository appointmentRepository;
+    private final SlotClaimRepository slotClaimRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${appointments.sweep.chunk-size:500}")
+    private int chunkSize;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong totalSwept = new AtomicLong();
+    private final AtomicLong totalChunks = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile long lastRunAt;
+    private volatile long lastSwept;
+    private volatile long lastDurationMillis;
+    private volatile String lastError;
+
+    public AppointmentStatusSweeper(AppointmentRepository appointmentRepository,
+                                    SlotClaimRepository slotClaimRepository,
+                                    TransactionTemplate transactionTemplate) {
+        this.appointmentRepository = appointmentRepository;
+        this.slotClaimRepository = slotClaimRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    // 1) sweep(): everything elapsed as of the start of the run
+    @Scheduled(initialDelayString = "${appointments.sweep.interval-ms:60000}",
+               fixedDelayString = "${appointments.sweep.interval-ms:60000}")
+    public void sweep() {
+        long started = System.currentTimeMillis();
+        LocalDateTime cutoff = LocalDateTime.now();
+        LocalDateTime afterTime = AppointmentCursor.START.getTime();
+        Long afterId = AppointmentCursor.START.getId();
+        long swept = 0;
+
+        try {
+            while (true) {
+                List<Object[]> rows = appointmentRepository.findElapsedAfter(cutoff, afterTime, afterId, Limit.of(chunkSize));
+                if (rows.isEmpty()) break;
+
+                List<Long> ids = new ArrayList<>(rows.size());
+                for (Object[] row : rows) ids.add((Long) row[0]);
+
+                Integer updated = transactionTemplate.execute(status -> appointmentRepository.markPast(ids));
+                swept += updated == null ? 0 : updated;
+                totalChunks.incrementAndGet();
+
+                Object[] last = rows.get(rows.size() - 1);
+                afterTime = (LocalDateTime) last[1];
+                afterId = (Long) last[0];
+                if (rows.size() < chunkSize) break;
+            }
+
+            // No future booking can overlap a cell that ended before now
+            slotClaimRepository.deleteCellsStartingBefore(cutoff.minusMinutes(SlotClaimService.MINUTES_PER_CELL));
+            lastError = null;
+        } catch (Exception e) {
+            // Chunks already committed stay committed; the next run resumes from the start
+            failures.incrementAndGet();
+            lastError = e.getMessage();
+            log.warn("Appointment status sweep failed: {}", e.getMessage());
+        } finally {
+            runs.incrementAndGet();
+            totalSwept.addAndGet(swept);
+            lastSwept = swept;
+            lastRunAt = started;
+            lastDurationMillis = System.currentTimeMillis() - started;
+        }
+
+        if (swept > 0) log.info("Marked {} elapsed appointments as past in {} ms", swept, lastDurationMillis);
+    }
+
+    // 2) metrics(): counters for the admin status endpoint
+    public Map<String, Object> metrics() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("runs", runs.get());
+        m.put("totalSwept", totalSwept.get());
+        m.put("totalChunks", totalChunks.get());
+        m.put("failures", failures.get());
+        m.put("lastRunAt", lastRunAt == 0 ? null : new Date(lastRunAt));
+        m.put("lastSwept", lastSwept);
+        m.put("lastDurationMillis", lastDurationMillis);
+        m.put("lastError", lastError);
+        return m;
+    }
+}
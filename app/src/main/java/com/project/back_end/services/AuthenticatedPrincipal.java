@@ -0,0 +1,135 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Admin;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.AdminRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+// Identity of the caller for the current request.
+// Resolved once from the token (claims only, no DB); the backing entity is loaded
+// at most once per request, the first time a service actually needs it.
+@Component
+@RequestScope
+public class AuthenticatedPrincipal {
+
+    private final TokenService tokenService;
+    private final AdminRepository adminRepository;
+    private final DoctorRepository doctorRepository;
+    private final PatientRepository patientRepository;
+
+    private String token;
+    private String role;
+    private Long id;
+    private String email;
+
+    private String loadedRole;
+    private Object entity;
+
+    public AuthenticatedPrincipal(TokenService tokenService,
+                                  AdminRepository adminRepository,
+                                  DoctorRepository doctorRepository,
+                                  PatientRepository patientRepository) {
+        this.tokenService = tokenService;
+        this.adminRepository = adminRepository;
+        this.doctorRepository = doctorRepository;
+        this.patientRepository = patientRepository;
+    }
+
+    // Binds this request to the token; a no-op when the same token was already resolved
+    public boolean resolve(String token) {
+        if (token == null || token.isBlank()) return false;
+        if (token.equals(this.token)) return true;
+
+        VerifiedTokenCache.Entry entry = tokenService.resolve(token);
+        if (entry == null) return false;
+
+        this.token = token;
+        this.role = entry.getRole();
+        this.id = entry.getPrincipalId();
+        this.email = entry.getSubject();
+        this.loadedRole = null;
+        this.entity = null;
+        return true;
+    }
+
+    public boolean isResolved() {
+        return token != null;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    // Role from the signed claim; null for tokens issued before role claims existed
+    public String getRole() {
+        return role;
+    }
+
+    // Email for doctors/patients, username for admins
+    public String getEmail() {
+        return email;
+    }
+
+    public Long getPatientId() {
+        return idFor("patient");
+    }
+
+    public Long getDoctorId() {
+        return idFor("doctor");
+    }
+
+    public Patient getPatient() {
+        return (Patient) load("patient");
+    }
+
+    public Doctor getDoctor() {
+        return (Doctor) load("doctor");
+    }
+
+    public Admin getAdmin() {
+        return (Admin) load("admin");
+    }
+
+    // ---------- Helpers ----------
+
+    // Uses the id claim when present, otherwise falls back to loading the entity
+    private Long idFor(String expectedRole) {
+        if (token == null) return null;
+        if (role != null && !role.equals(expectedRole)) return null;
+        if (role != null && id != null) return id;
+
+        Object loaded = load(expectedRole);
+        if (loaded instanceof Patient p) return p.getId();
+        if (loaded instanceof Doctor d) return d.getId();
+        if (loaded instanceof Admin a) return a.getId();
+        return null;
+    }
+
+    private Object load(String expectedRole) {
+        if (token == null) return null;
+        if (role != null && !role.equals(expectedRole)) return null;
+        if (expectedRole.equals(loadedRole)) return entity;
+
+        entity = switch (expectedRole) {
+            case "patient" -> {
+                Patient p = id != null ? patientRepository.findById(id).orElse(null) : patientRepository.findByEmail(email);
+                yield p != null && email.equalsIgnoreCase(p.getEmail()) ? p : null;
+            }
+            case "doctor" -> {
+                Doctor d = id != null ? doctorRepository.findById(id).orElse(null) : doctorRepository.findByEmail(email);
+                yield d != null && email.equalsIgnoreCase(d.getEmail()) ? d : null;
+            }
+            case "admin" -> {
+                Admin a = id != null ? adminRepository.findById(id).orElse(null) : adminRepository.findByUsername(email);
+                yield a != null && email.equals(a.getUsername()) ? a : null;
+            }
+            default -> null;
+        };
+        loadedRole = expectedRole;
+        return entity;
+    }
+}
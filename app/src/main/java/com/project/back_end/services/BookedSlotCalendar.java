@@ -0,0 +1,187 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.repo.AppointmentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// In-memory bitmap of booked appointment start times, one 96-bit day (quarter-hour slots) per (doctor, date).
+// Days inside the rolling horizon are loaded lazily from MySQL on first use and then kept current
+// by AppointmentService on book / update / cancel, so availability and overlap checks are bit tests.
+// Entries are reloaded after reload-ms so bookings made by other instances are picked up.
+// A cached answer is only a hint: a cancellation on another instance can leave a day showing a
+// booking that is gone, so callers reload() the day before acting on a "conflict", and the slot
+// claims stop any booking a stale "free" answer lets through.
+// A day is loaded inside days.compute() and the hooks update it through computeIfPresent(), so a
+// booking that lands while its day is loading waits for the load and is then applied on top of it.
+// Anything the bitmap cannot represent exactly (outside the horizon, times not on a quarter hour)
+// returns null and the caller falls back to the database.
+@Component
+public class BookedSlotCalendar {
+
+    private static final int MINUTES_PER_SLOT = 15;
+    private static final int SLOTS_PER_DAY = 24 * 60 / MINUTES_PER_SLOT;
+    // Two starts less than one appointment length apart overlap
+    private static final int SLOTS_PER_APPOINTMENT = Appointment.DURATION_MINUTES / MINUTES_PER_SLOT;
+
+    private final AppointmentRepository appointmentRepository;
+    private final Map<DayKey, DaySlots> days = new ConcurrentHashMap<>();
+
+    @Value("${slots.horizon-days:60}")
+    private int horizonDays;
+
+    @Value("${slots.reload-ms:300000}")
+    private long reloadMillis;
+
+    public BookedSlotCalendar(AppointmentRepository appointmentRepository) {
+        this.appointmentRepository = appointmentRepository;
+    }
+
+    // 1) hasConflict: would a one-hour appointment starting here overlap an existing one?
+    // "ignore" is the current start of the appointment being rescheduled, if any.
+    // Availability and booking both ask this, so a slot is shown exactly when it can be booked.
+    public Boolean hasConflict(Long doctorId, LocalDateTime start, LocalDateTime ignore) {
+        DaySlots day = day(doctorId, start);
+        if (day == null) return null;
+
+        int s = slot(start.toLocalTime());
+        int skip = ignore != null && ignore.toLocalDate().equals(start.toLocalDate()) && isQuarter(ignore)
+                ? slot(ignore.toLocalTime())
+                : -1;
+        return day.anyInRange(s - SLOTS_PER_APPOINTMENT + 1, s + SLOTS_PER_APPOINTMENT - 1, skip);
+    }
+
+    // 2) reload: re-read one day from MySQL now, to confirm a cached conflict before rejecting on it
+    public void reload(Long doctorId, LocalDate date) {
+        if (doctorId == null || date == null || !inHorizon(date)) return;
+        long now = System.currentTimeMillis();
+        days.compute(new DayKey(doctorId, date), (k, current) -> load(k, now));
+    }
+
+    // 3) Write-through hooks, called after the database change committed
+    public void onBooked(Long doctorId, LocalDateTime time) {
+        update(doctorId, time, day -> {
+            if (isQuarter(time)) day.set(slot(time.toLocalTime()));
+            else day.markIrregular();
+        });
+    }
+
+    public void onCancelled(Long doctorId, LocalDateTime time) {
+        update(doctorId, time, day -> {
+            if (isQuarter(time)) day.clear(slot(time.toLocalTime()));
+        });
+    }
+
+    public void evictDoctor(Long doctorId) {
+        days.keySet().removeIf(k -> k.doctorId().equals(doctorId));
+    }
+
+    // 4) Drop days that have slid out of the horizon
+    @Scheduled(fixedDelayString = "${slots.reload-ms:300000}")
+    public void evictPastDays() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        days.keySet().removeIf(k -> k.date().isBefore(yesterday));
+    }
+
+    // ---------- Helpers ----------
+
+    private DaySlots day(Long doctorId, LocalDateTime time) {
+        if (doctorId == null || time == null || !isQuarter(time) || !inHorizon(time.toLocalDate())) return null;
+
+        DayKey key = new DayKey(doctorId, time.toLocalDate());
+        long now = System.currentTimeMillis();
+        DaySlots day = days.get(key);
+        if (day == null || now - day.loadedAt >= reloadMillis) {
+            // Only one thread loads a given day; concurrent hooks for it wait and then apply to the result
+            day = days.compute(key, (k, current) ->
+                    current != null && now - current.loadedAt < reloadMillis ? current : load(k, now));
+        }
+        return day.isIrregular() ? null : day;
+    }
+
+    // Applies a change to the cached day, if any; waits for a load of that day already in progress
+    private void update(Long doctorId, LocalDateTime time, Consumer<DaySlots> change) {
+        if (doctorId == null || time == null) return;
+        days.computeIfPresent(new DayKey(doctorId, time.toLocalDate()), (k, day) -> {
+            change.accept(day);
+            return day;
+        });
+    }
+
+    private DaySlots load(DayKey key, long now) {
+        LocalDateTime start = key.date().atStartOfDay();
+        List<LocalDateTime> times = appointmentRepository
+                .findAppointmentTimesByDoctorIdBetween(key.doctorId(), start, start.plusDays(1));
+
+        DaySlots day = new DaySlots(now);
+        for (LocalDateTime t : times) {
+            if (isQuarter(t)) day.set(slot(t.toLocalTime()));
+            else day.markIrregular();
+        }
+        return day;
+    }
+
+    private boolean inHorizon(LocalDate date) {
+        LocalDate today = LocalDate.now();
+        return !date.isBefore(today.minusDays(1)) && !date.isAfter(today.plusDays(horizonDays));
+    }
+
+    private static boolean isQuarter(LocalDateTime t) {
+        return t.getMinute() % MINUTES_PER_SLOT == 0 && t.getSecond() == 0 && t.getNano() == 0;
+    }
+
+    private static int slot(LocalTime t) {
+        return (t.getHour() * 60 + t.getMinute()) / MINUTES_PER_SLOT;
+    }
+
+    private record DayKey(Long doctorId, LocalDate date) {
+    }
+
+    private static final class DaySlots {
+        private final long[] starts = new long[(SLOTS_PER_DAY + 63) / 64];
+        private final long loadedAt;
+        private volatile boolean irregular;
+
+        DaySlots(long loadedAt) {
+            this.loadedAt = loadedAt;
+        }
+
+        synchronized void set(int slot) {
+            starts[slot >>> 6] |= 1L << (slot & 63);
+        }
+
+        synchronized void clear(int slot) {
+            starts[slot >>> 6] &= ~(1L << (slot & 63));
+        }
+
+        synchronized boolean get(int slot) {
+            return (starts[slot >>> 6] & (1L << (slot & 63))) != 0;
+        }
+
+        // Any start bit in [from, to], clamped to the day, except "skip"
+        synchronized boolean anyInRange(int from, int to, int skip) {
+            for (int s = Math.max(0, from); s <= Math.min(SLOTS_PER_DAY - 1, to); s++) {
+                if (s != skip && (starts[s >>> 6] & (1L << (s & 63))) != 0) return true;
+            }
+            return false;
+        }
+
+        // A start time off the quarter-hour grid: this day can only be answered from the database
+        void markIrregular() {
+            irregular = true;
+        }
+
+        boolean isIrregular() {
+            return irregular;
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package com.project.back_end.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.function.Consumer;
+
+// Admin bulk import of patients and appointments from CSV (header row) or NDJSON.
+// The body is read as a stream in chunks of import.chunk-size rows. Each chunk is validated with
+// one lookup per referenced table and written in one transaction through batched inserts (pooled ids).
+// A chunk the database rejects is retried row by row, so one bad row never aborts the import.
+@Service
+public class BulkImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final PatientRepository patientRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorRepository doctorRepository;
+    private final SlotClaimService slotClaimService;
+    private final BookedSlotCalendar bookedSlotCalendar;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${import.chunk-size:1000}")
+    private int chunkSize;
+
+    public BulkImportService(PatientRepository patientRepository,
+                             AppointmentRepository appointmentRepository,
+                             DoctorRepository doctorRepository,
+                             SlotClaimService slotClaimService,
+                             BookedSlotCalendar bookedSlotCalendar,
+                             Validator validator,
+                             TransactionTemplate transactionTemplate,
+                             ObjectMapper objectMapper) {
+        this.patientRepository = patientRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.doctorRepository = doctorRepository;
+        this.slotClaimService = slotClaimService;
+        this.bookedSlotCalendar = bookedSlotCalendar;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    // 1) Patients: name, email, password, phone, address
+    public Map<String, Object> importPatients(InputStream body, boolean ndjson) throws IOException {
+        Report report = new Report();
+        Set<String> seenEmails = new HashSet<>();
+
+        try (RowReader reader = new RowReader(body, ndjson, objectMapper)) {
+            List<Row> chunk;
+            while (!(chunk = reader.next(chunkSize)).isEmpty()) {
+                importPatientChunk(chunk, seenEmails, report);
+            }
+        }
+        return report.toMap();
+    }
+
+    // 2) Appointments: doctorId, patientId, appointmentTime (ISO-8601), optional status.
+    // Upcoming appointments also take their slot claims, so an import cannot double-book.
+    public Map<String, Object> importAppointments(InputStream body, boolean ndjson) throws IOException {
+        Report report = new Report();
+        Set<Long> knownDoctors = new HashSet<>();
+        Set<Long> touchedDoctors = new HashSet<>();
+
+        try (RowReader reader = new RowReader(body, ndjson, objectMapper)) {
+            List<Row> chunk;
+            while (!(chunk = reader.next(chunkSize)).isEmpty()) {
+                importAppointmentChunk(chunk, knownDoctors, touchedDoctors, report);
+            }
+        } finally {
+            // Cached calendar days of these doctors may now be missing bookings
+            touchedDoctors.forEach(bookedSlotCalendar::evictDoctor);
+        }
+        return report.toMap();
+    }
+
+    // ---------- Helpers ----------
+
+    private void importPatientChunk(List<Row> chunk, Set<String> seenEmails, Report report) {
+        List<Pending<Patient>> pending = new ArrayList<>();
+        for (Row row : chunk) {
+            if (row.error() != null) {
+                report.fail(row.line(), row.error());
+                continue;
+            }
+
+            Patient p = new Patient();
+            p.setName(row.get("name"));
+            p.setEmail(row.get("email"));
+            p.setPassword(row.get("password"));
+            p.setPhone(row.get("phone"));
+            p.setAddress(row.get("address"));
+
+            String violation = firstViolation(p);
+            if (violation != null) {
+                report.fail(row.line(), violation);
+            } else if (!seenEmails.add(p.getEmail().toLowerCase())) {
+                report.fail(row.line(), "Duplicate email in file");
+            } else {
+                pending.add(new Pending<>(row.line(), p));
+            }
+        }
+        if (pending.isEmpty()) return;
+
+        // One query for the whole chunk instead of an existsByEmail per row
+        Set<String> existing = new HashSet<>();
+        for (String email : patientRepository.findExistingEmails(pending.stream().map(x -> x.entity().getEmail()).toList())) {
+            existing.add(email.toLowerCase());
+        }
+        pending.removeIf(x -> {
+            if (!existing.contains(x.entity().getEmail().toLowerCase())) return false;
+            report.fail(x.line(), "Email already registered");
+            return true;
+        });
+
+        write(pending, patientRepository::saveAllAndFlush, p -> p.setId(null), report);
+    }
+
+    private void importAppointmentChunk(List<Row> chunk, Set<Long> knownDoctors, Set<Long> touchedDoctors, Report report) {
+        List<Pending<Appointment>> parsed = new ArrayList<>();
+        for (Row row : chunk) {
+            if (row.error() != null) {
+                report.fail(row.line(), row.error());
+                continue;
+            }
+            try {
+                parsed.add(new Pending<>(row.line(), toAppointment(row)));
+            } catch (IllegalArgumentException e) {
+                report.fail(row.line(), e.getMessage());
+            }
+        }
+        if (parsed.isEmpty()) return;
+
+        // Referenced ids are checked with one IN query per table per chunk
+        Set<Long> doctorIds = new HashSet<>();
+        Set<Long> patientIds = new HashSet<>();
+        for (Pending<Appointment> x : parsed) {
+            doctorIds.add(x.entity().getDoctor().getId());
+            patientIds.add(x.entity().getPatient().getId());
+        }
+        doctorIds.removeAll(knownDoctors);
+        if (!doctorIds.isEmpty()) knownDoctors.addAll(doctorRepository.findExistingIds(doctorIds));
+        Set<Long> knownPatients = new HashSet<>(patientRepository.findExistingIds(patientIds));
+
+        List<Pending<Appointment>> pending = new ArrayList<>();
+        for (Pending<Appointment> x : parsed) {
+            if (!knownDoctors.contains(x.entity().getDoctor().getId())) {
+                report.fail(x.line(), "Invalid doctor ID");
+            } else if (!knownPatients.contains(x.entity().getPatient().getId())) {
+                report.fail(x.line(), "Invalid patient ID");
+            } else {
+                pending.add(x);
+                touchedDoctors.add(x.entity().getDoctor().getId());
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        write(pending, appointments -> {
+            appointmentRepository.saveAllAndFlush(appointments);
+            slotClaimService.claimAll(appointments.stream().filter(a -> a.getAppointmentTime().isAfter(now)).toList());
+        }, a -> a.setId(null), report);
+    }
+
+    private Appointment toAppointment(Row row) {
+        Long doctorId = parseId(row.get("doctorId"), "doctorId");
+        Long patientId = parseId(row.get("patientId"), "patientId");
+
+        String time = row.get("appointmentTime");
+        if (time == null || time.isBlank()) throw new IllegalArgumentException("Appointment time is required");
+        LocalDateTime appointmentTime;
+        try {
+            appointmentTime = LocalDateTime.parse(time.trim().replace(' ', 'T'));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid appointmentTime: " + time);
+        }
+
+        // Without a status, elapsed appointments are imported as completed
+        String status = row.get("status");
+        int s;
+        try {
+            s = status == null || status.isBlank()
+                    ? (appointmentTime.isBefore(LocalDateTime.now()) ? 1 : 0)
+                    : Integer.parseInt(status.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid status: " + status);
+        }
+
+        Doctor doctor = new Doctor();
+        doctor.setId(doctorId);
+        Patient patient = new Patient();
+        patient.setId(patientId);
+
+        Appointment a = new Appointment();
+        a.setDoctor(doctor);
+        a.setPatient(patient);
+        a.setAppointmentTime(appointmentTime);
+        a.setStatus(s);
+        return a;
+    }
+
+    private Long parseId(String value, String field) {
+        if (value == null || value.isBlank()) throw new IllegalArgumentException(field + " is required");
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + field + ": " + value);
+        }
+    }
+
+    private String firstViolation(Object entity) {
+        Set<ConstraintViolation<Object>> violations = validator.validate(entity);
+        return violations.isEmpty() ? null : violations.iterator().next().getMessage();
+    }
+
+    // Whole chunk in one transaction; if the database rejects it, each row on its own
+    private <T> void write(List<Pending<T>> pending, Consumer<List<T>> writer, Consumer<T> resetId, Report report) {
+        if (pending.isEmpty()) return;
+
+        try {
+            List<T> entities = pending.stream().map(Pending::entity).toList();
+            transactionTemplate.executeWithoutResult(status -> writer.accept(entities));
+            report.imported(pending.size());
+            return;
+        } catch (RuntimeException e) {
+            // fall through to row-by-row
+        }
+
+        for (Pending<T> x : pending) {
+            // Ids assigned inside the rolled-back transaction are discarded
+            resetId.accept(x.entity());
+            try {
+                transactionTemplate.executeWithoutResult(status -> writer.accept(List.of(x.entity())));
+                report.imported(1);
+            } catch (DataIntegrityViolationException e) {
+                resetId.accept(x.entity());
+                report.fail(x.line(), "Conflicts with an existing row");
+            } catch (RuntimeException e) {
+                resetId.accept(x.entity());
+                report.fail(x.line(), e.getMessage());
+            }
+        }
+    }
+
+    private record Pending<T>(long line, T entity) {
+    }
+
+    private record Row(long line, Map<String, String> fields, String error) {
+        String get(String name) {
+            return fields.get(name);
+        }
+    }
+
+    private static final class Report {
+        private final long startedAt = System.currentTimeMillis();
+        private final List<Map<String, Object>> errors = new ArrayList<>();
+        private long imported;
+        private long failed;
+
+        void imported(int n) {
+            imported += n;
+        }
+
+        void fail(long line, String error) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                Map<String, Object> e = new LinkedHashMap<>();
+                e.put("line", line);
+                e.put("error", error);
+                errors.add(e);
+            }
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> res = new LinkedHashMap<>();
+            res.put("message", failed == 0 ? "Import completed" : "Import completed with errors");
+            res.put("imported", imported);
+            res.put("failed", failed);
+            res.put("errors", errors);
+            res.put("errorsTruncated", failed > errors.size());
+            res.put("elapsedMillis", System.currentTimeMillis() - startedAt);
+            return res;
+        }
+    }
+
+    // Streams rows off the request body; line numbers count the CSV header as line 1
+    private static final class RowReader implements Closeable {
+        private final BufferedReader reader;
+        private final boolean ndjson;
+        private final ObjectMapper objectMapper;
+        private final String[] header;
+        private long line;
+
+        RowReader(InputStream in, boolean ndjson, ObjectMapper objectMapper) throws IOException {
+            this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            this.ndjson = ndjson;
+            this.objectMapper = objectMapper;
+
+            String first = ndjson ? null : readLine();
+            this.header = first == null ? new String[0] : splitCsv(first);
+            for (int i = 0; i < header.length; i++) header[i] = header[i].trim();
+        }
+
+        List<Row> next(int max) throws IOException {
+            List<Row> rows = new ArrayList<>();
+            String s;
+            while (rows.size() < max && (s = readLine()) != null) {
+                if (!s.isBlank()) rows.add(parse(s));
+            }
+            return rows;
+        }
+
+        private String readLine() throws IOException {
+            String s = reader.readLine();
+            if (s != null) line++;
+            return s;
+        }
+
+        private Row parse(String s) {
+            Map<String, String> fields = new HashMap<>();
+            if (ndjson) {
+                try {
+                    JsonNode node = objectMapper.readTree(s);
+                    if (!node.isObject()) return new Row(line, null, "Expected a JSON object");
+                    node.fields().forEachRemaining(e -> fields.put(e.getKey(), e.getValue().isNull() ? null : e.getValue().asText()));
+                } catch (JsonProcessingException e) {
+                    return new Row(line, null, "Malformed JSON");
+                }
+            } else {
+                String[] values = splitCsv(s);
+                if (values.length != header.length) {
+                    return new Row(line, null, "Expected " + header.length + " columns, found " + values.length);
+                }
+                for (int i = 0; i < values.length; i++) fields.put(header[i], values[i]);
+            }
+            return new Row(line, fields, null);
+        }
+
+        // RFC 4180 fields on one line: quoted fields may contain commas and doubled quotes
+        private static String[] splitCsv(String s) {
+            List<String> out = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < s.length() && s.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    out.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            out.add(field.toString());
+            return out.toArray(new String[0]);
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -3,11 +3,8 @@ package com.project.back_end.services;
 
 import com.project.back_end.DTO.Login;
 import com.project.back_end.models.Admin;
-import com.project.back_end.models.Appointment;
-import com.project.back_end.models.Doctor;
 import com.project.back_end.models.Patient;
 import com.project.back_end.repo.AdminRepository;
-import com.project.back_end.repo.DoctorRepository;
 import com.project.back_end.repo.PatientRepository;
 
 import org.springframework.http.HttpStatus;
@@ -15,7 +12,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
 
-import java.time.LocalDate;
 import java.util.*;
 
 @Service
@@ -23,23 +19,26 @@ public class ClinicService {
 
     private final TokenService tokenService;
     private final AdminRepository adminRepository;
-    private final DoctorRepository doctorRepository;
     private final PatientRepository patientRepository;
     private final DoctorService doctorService;
     private final PatientService patientService;
+    private final AuthenticatedPrincipal principal;
+    private final DoctorDirectory doctorDirectory;
 
     public ClinicService(TokenService tokenService,
                          AdminRepository adminRepository,
-                         DoctorRepository doctorRepository,
                          PatientRepository patientRepository,
                          DoctorService doctorService,
-                         PatientService patientService) {
+                         PatientService patientService,
+                         AuthenticatedPrincipal principal,
+                         DoctorDirectory doctorDirectory) {
         this.tokenService = tokenService;
         this.adminRepository = adminRepository;
-        this.doctorRepository = doctorRepository;
         this.patientRepository = patientRepository;
         this.doctorService = doctorService;
         this.patientService = patientService;
+        this.principal = principal;
+        this.doctorDirectory = doctorDirectory;
     }
 
     // ------------------ 1) validateToken ------------------
@@ -85,7 +84,7 @@ public class ClinicService {
         }
 
         // Token subject = username for admin (as your LoginDTO design notes)
-        String token = tokenService.generateToken(admin.getUsername());
+        String token = tokenService.generateToken(admin.getUsername(), "admin", admin.getId());
         res.put("token", token);
         res.put("message", "Login successful");
 
@@ -94,87 +93,30 @@ public class ClinicService {
 
     // ------------------ 3) filterDoctor ------------------
     public Map<String, Object> filterDoctor(String name, String specialty, String time) {
-        // This method returns Map<String,Object> with "doctors"
-        // and coordinates calls to DoctorService based on which filters are present.
+        // This method returns Map<String,Object> with "doctors";
+        // whichever filters are present are applied together.
 
         boolean hasName = !isBlank(name);
         boolean hasSpec = !isBlank(specialty);
         boolean hasTime = !isBlank(time);
 
-        if (hasName && hasSpec && hasTime) {
-            return doctorService.filterDoctorsByNameSpecilityandTime(name, specialty, time);
+        // Served from the in-memory directory; the single query below is only a fallback until it is built
+        if (doctorDirectory.isReady()) {
+            Map<String, Object> res = new HashMap<>();
+            res.put("doctors", doctorDirectory.search(
+                    hasName ? name : null,
+                    hasSpec ? specialty : null,
+                    hasTime ? time : null));
+            return res;
         }
 
-        if (hasName && hasTime && !hasSpec) {
-            return doctorService.filterDoctorByNameAndTime(name, time);
-        }
-
-        if (hasName && hasSpec && !hasTime) {
-            return doctorService.filterDoctorByNameAndSpecility(name, specialty);
-        }
-
-        if (hasSpec && hasTime && !hasName) {
-            return doctorService.filterDoctorByTimeAndSpecility(specialty, time);
-        }
-
-        if (hasSpec && !hasName && !hasTime) {
-            return doctorService.filterDoctorBySpecility(specialty);
-        }
-
-        if (hasTime && !hasName && !hasSpec) {
-            return doctorService.filterDoctorsByTime(time);
-        }
-
-        if (hasName && !hasSpec && !hasTime) {
-            return doctorService.findDoctorByName(name);
-        }
-
-        // If no filters at all, return all doctors
-        Map<String, Object> res = new HashMap<>();
-        res.put("doctors", doctorService.getDoctors());
-        return res;
-    }
-
-    // ------------------ 4) validateAppointment ------------------
-    public int validateAppointment(Appointment appointment) {
-        if (appointment == null || appointment.getDoctor() == null || appointment.getDoctor().getId() == null) {
-            return -1;
-        }
-
-        Long doctorId = appointment.getDoctor().getId();
-
-        Doctor doctor = doctorRepository.findById(doctorId).orElse(null);
-        if (doctor == null) return -1;
-
-        if (appointment.getAppointmentTime() == null) return 0;
-
-        LocalDate date = appointment.getAppointmentTime().toLocalDate();
-        List<String> availableSlots = doctorService.getDoctorAvailability(doctorId, date);
-
-        // Match appointment time against available slots
-        // Slot format assumed like "09:00 AM" or "09:00"
-        String apptTime = appointment.getAppointmentTime().toLocalTime().toString(); // e.g. "09:00"
-        boolean ok = availableSlots.stream()
-                .filter(Objects::nonNull)
-                .map(String::trim)
-                .anyMatch(slot -> normalizeSlot(slot).equals(apptTime));
-
-        return ok ? 1 : 0;
-    }
-
-    // ------------------ 5) validatePatient (register validation) ------------------
-    public boolean validatePatient(Patient patient) {
-        if (patient == null) return false;
-
-        String email = patient.getEmail();
-        String phone = patient.getPhone();
-
-        // true if patient does NOT exist, false if exists already (as requirement says)
-        Patient existing = patientRepository.findByEmailOrPhone(email, phone);
-        return existing == null;
+        return doctorService.filterDoctors(
+                hasName ? name : null,
+                hasSpec ? specialty : null,
+                hasTime ? time : null);
     }
 
-    // ------------------ 6) validatePatientLogin ------------------
+    // ------------------ 4) validatePatientLogin ------------------
     public ResponseEntity<Map<String, String>> validatePatientLogin(Login login) {
         Map<String, String> res = new HashMap<>();
 
@@ -194,15 +136,16 @@ public class ClinicService {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(res);
         }
 
-        String token = tokenService.generateToken(patient.getEmail());
+        String token = tokenService.generateToken(patient.getEmail(), "patient", patient.getId());
         res.put("token", token);
         res.put("message", "Login successful");
 
         return ResponseEntity.ok(res);
     }
 
-    // ------------------ 7) filterPatient ------------------
-    public ResponseEntity<Map<String, Object>> filterPatient(String condition, String name, String token) {
+    // ------------------ 5) filterPatient ------------------
+    public ResponseEntity<Map<String, Object>> filterPatient(String condition, String name, String token,
+                                                             String cursor, Integer limit) {
         Map<String, Object> res = new HashMap<>();
 
         if (token == null || token.isBlank()) {
@@ -210,16 +153,10 @@ public class ClinicService {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(res);
         }
 
-        Patient patient;
-        try {
-            String email = tokenService.extractEmail(token);
-            patient = patientRepository.findByEmail(email);
-            if (patient == null) {
-                res.put("message", "Invalid token or patient not found");
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(res);
-            }
-        } catch (Exception e) {
-            res.put("message", "Invalid token");
+        // Patient id comes from the request's principal (token claim), no lookup needed
+        Long patientId = principal.resolve(token) ? principal.getPatientId() : null;
+        if (patientId == null) {
+            res.put("message", "Invalid token or patient not found");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(res);
         }
 
@@ -227,19 +164,19 @@ public class ClinicService {
         boolean hasDoctorName = !isBlank(name);
 
         if (hasCondition && hasDoctorName) {
-            return patientService.filterByDoctorAndCondition(condition, name, patient.getId());
+            return patientService.filterByDoctorAndCondition(condition, name, patientId, cursor, limit);
         }
 
         if (hasCondition) {
-            return patientService.filterByCondition(condition, patient.getId());
+            return patientService.filterByCondition(condition, patientId, cursor, limit);
         }
 
         if (hasDoctorName) {
-            return patientService.filterByDoctor(name, patient.getId());
+            return patientService.filterByDoctor(name, patientId, cursor, limit);
         }
 
-        // No filters: return all appointments for the patient
-        return patientService.getPatientAppointment(patient.getId(), token);
+        // No filters: the patient's appointments, paged the same way
+        return patientService.getPatientAppointment(patientId, token, cursor, limit);
     }
 
     // ------------------ Helpers ------------------
@@ -247,38 +184,4 @@ public class ClinicService {
     private boolean isBlank(String s) {
         return s == null || s.trim().isEmpty() || "null".equalsIgnoreCase(s.trim());
     }
-
-    // Normalizes slot to "HH:mm" (so it can match LocalTime.toString() which is usually "HH:mm" or "HH:mm:ss")
-    private String normalizeSlot(String slot) {
-        if (slot == null) return "";
-
-        String s = slot.trim().toUpperCase();
-
-        // If stored like "09:00 AM" -> take first part "09:00"
-        if (s.endsWith("AM") || s.endsWith("PM")) {
-            String timePart = s.replace("AM", "").replace("PM", "").trim();
-            // If you store "9:00 AM", LocalTime.toString() becomes "09:00"
-            // We'll try to pad if needed:
-            return padTime(timePart);
-        }
-
-        // If stored like "09:00" -> return it padded
-        return padTime(s);
-    }
-
-    private String padTime(String t) {
-        // Very small helper: "9:00" -> "09:00"
-        // If it's already "09:00" return as is.
-        try {
-            String[] parts = t.split(":");
-            if (parts.length >= 2) {
-                String hh = parts[0].trim();
-                String mm = parts[1].trim();
-                if (hh.length() == 1) hh = "0" + hh;
-                if (mm.length() == 1) mm = "0" + mm;
-                return hh + ":" + mm;
-            }
-        } catch (Exception ignored) {}
-        return t;
-    }
 }
@@ -0,0 +1,195 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PrescriptionRepository;
+import com.project.back_end.repo.SlotClaimRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Removes a doctor and everything hanging off it without holding a request thread.
+// The request only hides the doctor (directory, schedule, token) and starts a job; the job then
+// deletes appointments in chunks: prescriptions first (one Mongo deleteMany per chunk, so a crash
+// never leaves orphans), then slot claims and appointment rows in one short MySQL transaction.
+// The doctor row, its schedule and its schedule exceptions go last, in one transaction. The doctor stays
+// hidden from directory rebuilds and schedule warm-ups until the job finishes; if it fails, the stored
+// schedule is untouched and the doctor is put back. Jobs are kept in memory on the instance that started them.
+@Service
+public class DoctorDeletionService {
+
+    private static final Logger log = LoggerFactory.getLogger(DoctorDeletionService.class);
+
+    private static final long FINISHED_JOB_RETENTION_MILLIS = 24 * 60 * 60 * 1000L;
+
+    private final DoctorRepository doctorRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final SlotClaimRepository slotClaimRepository;
+    private final PrescriptionRepository prescriptionRepository;
+    private final DoctorDirectory doctorDirectory;
+    private final ScheduleService scheduleService;
+    private final BookedSlotCalendar bookedSlotCalendar;
+    private final TokenService tokenService;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor taskExecutor;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final Map<Long, Job> activeByDoctor = new ConcurrentHashMap<>();
+
+    @Value("${doctor.deletion.chunk-size:500}")
+    private int chunkSize;
+
+    public DoctorDeletionService(DoctorRepository doctorRepository,
+                                 AppointmentRepository appointmentRepository,
+                                 SlotClaimRepository slotClaimRepository,
+                                 PrescriptionRepository prescriptionRepository,
+                                 DoctorDirectory doctorDirectory,
+                                 ScheduleService scheduleService,
+                                 BookedSlotCalendar bookedSlotCalendar,
+                                 TokenService tokenService,
+                                 TransactionTemplate transactionTemplate,
+                                 @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+        this.doctorRepository = doctorRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.slotClaimRepository = slotClaimRepository;
+        this.prescriptionRepository = prescriptionRepository;
+        this.doctorDirectory = doctorDirectory;
+        this.scheduleService = scheduleService;
+        this.bookedSlotCalendar = bookedSlotCalendar;
+        this.tokenService = tokenService;
+        this.transactionTemplate = transactionTemplate;
+        this.taskExecutor = taskExecutor;
+    }
+
+    // 1) start(): null when the doctor does not exist; a second call while running returns the same job
+    public Job start(long doctorId) {
+        Job running = activeByDoctor.get(doctorId);
+        if (running != null) return running;
+
+        Doctor doctor = doctorRepository.findById(doctorId).orElse(null);
+        if (doctor == null) return null;
+
+        Job job = new Job(doctorId);
+        Job raced = activeByDoctor.putIfAbsent(doctorId, job);
+        if (raced != null) return raced;
+
+        pruneFinishedJobs();
+        jobs.put(job.id, job);
+
+        // Hidden right away: no search hits, no bookable slots, no doctor logins
+        doctorDirectory.hide(doctorId);
+        scheduleService.hide(doctorId);
+        tokenService.revokeSubject(doctor.getEmail());
+
+        try {
+            taskExecutor.execute(() -> run(job));
+        } catch (RuntimeException e) {
+            finish(job, e);
+            throw e;
+        }
+        return job;
+    }
+
+    // 2) get(): status of a job started on this instance
+    public Job get(String jobId) {
+        return jobId == null ? null : jobs.get(jobId);
+    }
+
+    // ---------- Helpers ----------
+
+    private void run(Job job) {
+        try {
+            // Always the first chunk: deleted rows drop out, and appointments booked meanwhile are still found
+            List<Long> ids;
+            while (!(ids = appointmentRepository.findIdsByDoctorId(job.doctorId, Limit.of(chunkSize))).isEmpty()) {
+                List<Long> chunk = ids;
+                job.prescriptionsDeleted.addAndGet(prescriptionRepository.deleteByAppointmentIdIn(chunk));
+
+                Integer deleted = transactionTemplate.execute(status -> {
+                    slotClaimRepository.deleteByAppointmentIds(chunk);
+                    return appointmentRepository.deleteByIds(chunk);
+                });
+                job.appointmentsDeleted.addAndGet(deleted == null ? 0 : deleted);
+            }
+
+            transactionTemplate.executeWithoutResult(status -> {
+                slotClaimRepository.deleteByDoctorId(job.doctorId);
+                scheduleService.deleteSchedule(job.doctorId);
+                doctorRepository.deleteById(job.doctorId);
+            });
+            bookedSlotCalendar.evictDoctor(job.doctorId);
+            finish(job, null);
+        } catch (Exception e) {
+            log.warn("Deletion of doctor {} failed: {}", job.doctorId, e.getMessage());
+            finish(job, e);
+        }
+    }
+
+    private void finish(Job job, Exception error) {
+        job.error = error != null ? error.getMessage() : null;
+        job.state = error != null ? "FAILED" : "COMPLETED";
+        job.finishedAt = System.currentTimeMillis();
+        scheduleService.unhide(job.doctorId);
+        doctorDirectory.unhide(job.doctorId);
+        if (error != null) {
+            // The doctor row and its schedule are still there: unhiding brought the schedule back,
+            // the directory entry needs a rebuild
+            doctorDirectory.rebuild();
+        }
+        activeByDoctor.remove(job.doctorId, job);
+        job.completion.complete(null);
+    }
+
+    private void pruneFinishedJobs() {
+        long cutoff = System.currentTimeMillis() - FINISHED_JOB_RETENTION_MILLIS;
+        jobs.values().removeIf(j -> j.finishedAt != 0 && j.finishedAt < cutoff);
+    }
+
+    public static final class Job {
+        private final String id = UUID.randomUUID().toString();
+        private final long doctorId;
+        private final long startedAt = System.currentTimeMillis();
+        private final AtomicLong appointmentsDeleted = new AtomicLong();
+        private final AtomicLong prescriptionsDeleted = new AtomicLong();
+        private final CompletableFuture<Void> completion = new CompletableFuture<>();
+        private volatile String state = "RUNNING";
+        private volatile long finishedAt;
+        private volatile String error;
+
+        private Job(long doctorId) {
+            this.doctorId = doctorId;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public CompletableFuture<Void> getCompletion() {
+            return completion;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("jobId", id);
+            m.put("doctorId", doctorId);
+            m.put("state", state);
+            m.put("appointmentsDeleted", appointmentsDeleted.get());
+            m.put("prescriptionsDeleted", prescriptionsDeleted.get());
+            m.put("startedAt", new Date(startedAt));
+            m.put("finishedAt", finishedAt == 0 ? null : new Date(finishedAt));
+            m.put("error", error);
+            return m;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.DoctorRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-process index over all doctors, used to answer doctor searches without touching MySQL.
+// - specialty: hash index on the lower-cased specialty
+// - name: trigram index on the lower-cased name, candidates are confirmed with contains()
+// - time: AM/PM bits taken from the doctor's compiled schedule
+// Built at startup, kept current by DoctorService on save/update/delete,
+// and fully rebuilt on a fixed delay to pick up writes made by other instances.
+// A rebuild fills a new Index and swaps it in at once, so searches never see a half-built one.
+// Doctors being deleted are hidden: left out of rebuilds and puts until their deletion finishes.
+@Component
+public class DoctorDirectory {
+
+    private static final Logger log = LoggerFactory.getLogger(DoctorDirectory.class);
+
+    private static final int GRAM = 3;
+
+    private final DoctorRepository doctorRepository;
+    private final ScheduleService scheduleService;
+
+    private volatile Index index = new Index();
+    private final Set<Long> hidden = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean ready = false;
+
+    public DoctorDirectory(DoctorRepository doctorRepository, ScheduleService scheduleService) {
+        this.doctorRepository = doctorRepository;
+        this.scheduleService = scheduleService;
+    }
+
+    // 1) rebuild(): full reload from MySQL (startup, after the schedules are warmed + periodic)
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(1)
+    @Scheduled(initialDelayString = "${doctor.directory.refresh-ms:300000}",
+               fixedDelayString = "${doctor.directory.refresh-ms:300000}")
+    public synchronized void rebuild() {
+        try {
+            List<Doctor> doctors = doctorRepository.findAllWithAvailableTimes();
+
+            Index fresh = new Index();
+            for (Doctor d : doctors) {
+                if (!hidden.contains(d.getId())) add(fresh, d);
+            }
+            index = fresh;
+            ready = true;
+        } catch (Exception e) {
+            // Searches fall back to the database until a rebuild succeeds
+            ready = false;
+            log.warn("Doctor directory rebuild failed: {}", e.getMessage());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // 2) put(Doctor): insert or replace one doctor
+    public synchronized void put(Doctor doctor) {
+        if (doctor == null || doctor.getId() == null || hidden.contains(doctor.getId())) return;
+        remove(doctor.getId());
+        add(index, doctor);
+    }
+
+    // 3) remove(Long): drop one doctor from every index
+    public synchronized void remove(Long id) {
+        Index idx = index;
+        Entry old = idx.byId.remove(id);
+        if (old == null) return;
+
+        unindex(idx.bySpecialty, old.specialtyKey, id);
+        for (String gram : trigrams(old.nameKey)) {
+            unindex(idx.byTrigram, gram, id);
+        }
+    }
+
+    // 4) hide(Long) / unhide(Long): keep a doctor out of the directory, rebuilds included
+    public synchronized void hide(Long id) {
+        hidden.add(id);
+        remove(id);
+    }
+
+    public synchronized void unhide(Long id) {
+        hidden.remove(id);
+    }
+
+    public Doctor get(Long id) {
+        Entry e = id != null ? index.byId.get(id) : null;
+        return e != null ? e.doctor : null;
+    }
+
+    public List<Doctor> all() {
+        return index.byId.values().stream()
+                .sorted(Comparator.comparing(e -> e.doctor.getId()))
+                .map(e -> e.doctor)
+                .toList();
+    }
+
+    // 5) search(name, specialty, time): any combination; blank arguments are ignored
+    public List<Doctor> search(String name, String specialty, String amOrPm) {
+        Index idx = index;
+        Set<Long> candidates = null;
+
+        if (specialty != null) {
+            candidates = idx.bySpecialty.getOrDefault(specialty.toLowerCase(), Set.of());
+        }
+
+        String nameKey = name != null ? name.toLowerCase() : null;
+        if (nameKey != null && nameKey.length() >= GRAM) {
+            candidates = intersect(candidates, nameCandidates(idx, nameKey));
+        }
+
+        int mask = timeMask(amOrPm);
+        Collection<Long> ids = candidates != null ? candidates : idx.byId.keySet();
+
+        List<Doctor> result = new ArrayList<>();
+        for (Long id : ids) {
+            Entry e = idx.byId.get(id);
+            if (e == null) continue;
+            if (nameKey != null && !e.nameKey.contains(nameKey)) continue;
+            if (mask != 0 && (e.timeMask & mask) == 0) continue;
+            result.add(e.doctor);
+        }
+
+        result.sort(Comparator.comparing(Doctor::getId));
+        return result;
+    }
+
+    // ---------- Helpers ----------
+
+    private void add(Index idx, Doctor d) {
+        Entry e = new Entry(d, scheduleService.dayPartMask(d.getId()));
+        idx.byId.put(d.getId(), e);
+
+        index(idx.bySpecialty, e.specialtyKey, d.getId());
+        for (String gram : trigrams(e.nameKey)) {
+            index(idx.byTrigram, gram, d.getId());
+        }
+    }
+
+    // Ids whose names contain every trigram of the query (smallest posting list first)
+    private Set<Long> nameCandidates(Index idx, String nameKey) {
+        List<Set<Long>> postings = new ArrayList<>();
+        for (String gram : trigrams(nameKey)) {
+            Set<Long> p = idx.byTrigram.get(gram);
+            if (p == null) return Set.of();
+            postings.add(p);
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+
+        Set<Long> result = new HashSet<>(postings.get(0));
+        for (int i = 1; i < postings.size() && !result.isEmpty(); i++) {
+            result.retainAll(postings.get(i));
+        }
+        return result;
+    }
+
+    private Set<Long> intersect(Set<Long> a, Set<Long> b) {
+        if (a == null) return b;
+        Set<Long> small = a.size() <= b.size() ? a : b;
+        Set<Long> large = small == a ? b : a;
+
+        Set<Long> result = new HashSet<>();
+        for (Long id : small) {
+            if (large.contains(id)) result.add(id);
+        }
+        return result;
+    }
+
+    private static Set<String> trigrams(String s) {
+        if (s == null || s.length() < GRAM) return Set.of();
+
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= s.length(); i++) {
+            grams.add(s.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static void index(Map<String, Set<Long>> index, String key, Long id) {
+        if (key == null) return;
+        index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(id);
+    }
+
+    private static void unindex(Map<String, Set<Long>> index, String key, Long id) {
+        if (key == null) return;
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static int timeMask(String amOrPm) {
+        if (amOrPm == null) return 0;
+        String target = amOrPm.trim().toUpperCase();
+        if (target.equals("AM")) return ScheduleService.AM;
+        if (target.equals("PM")) return ScheduleService.PM;
+        return 0;
+    }
+
+    // The three lookups of one generation of the directory
+    private static final class Index {
+        private final Map<Long, Entry> byId = new ConcurrentHashMap<>();
+        private final Map<String, Set<Long>> bySpecialty = new ConcurrentHashMap<>();
+        private final Map<String, Set<Long>> byTrigram = new ConcurrentHashMap<>();
+    }
+
+    private static final class Entry {
+        private final Doctor doctor;
+        private final String nameKey;
+        private final String specialtyKey;
+        private final int timeMask;
+
+        Entry(Doctor doctor, int timeMask) {
+            this.doctor = doctor;
+            this.nameKey = doctor.getName() != null ? doctor.getName().toLowerCase() : "";
+            this.specialtyKey = doctor.getSpecialty() != null ? doctor.getSpecialty().toLowerCase() : null;
+            this.timeMask = timeMask;
+        }
+    }
+}
@@ -1,59 +1,74 @@
 package com.project.back_end.services;
+import com.project.back_end.DTO.DoctorListingDTO;
 import com.project.back_end.DTO.Login;
+import com.project.back_end.DTO.WeeklyScheduleDTO;
 import com.project.back_end.models.Appointment;
 import com.project.back_end.models.Doctor;
 import com.project.back_end.repo.AppointmentRepository;
 import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.DoctorSpecifications;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.*;
 
 @Service
 public class DoctorService {
+    public static final int MAX_LISTING_PAGE_SIZE = 100;
+    private static final int SLOT_BATCH_SIZE = 500;
+
     private final DoctorRepository doctorRepository;
     private final AppointmentRepository appointmentRepository;
     private final TokenService tokenService;
+    private final DoctorDirectory doctorDirectory;
+    private final BookedSlotCalendar bookedSlotCalendar;
+    private final ScheduleService scheduleService;
 
     public DoctorService(DoctorRepository doctorRepository,
                          AppointmentRepository appointmentRepository,
-                         TokenService tokenService) {
+                         TokenService tokenService,
+                         DoctorDirectory doctorDirectory,
+                         BookedSlotCalendar bookedSlotCalendar,
+                         ScheduleService scheduleService) {
         this.doctorRepository = doctorRepository;
         this.appointmentRepository = appointmentRepository;
         this.tokenService = tokenService;
+        this.doctorDirectory = doctorDirectory;
+        this.bookedSlotCalendar = bookedSlotCalendar;
+        this.scheduleService = scheduleService;
     }
+    // Slots come from the doctor's compiled weekly schedule (date exceptions included); a slot is
+    // listed when the booking check would accept it. Slots are rendered "HH:mm-HH:mm"
     public List<String> getDoctorAvailability(Long doctorId, LocalDate date) {
         if (doctorId == null || date == null) return List.of();
 
-        Doctor doctor = doctorRepository.findById(doctorId).orElse(null);
-        if (doctor == null) return List.of();
-
-        List<String> available = doctor.getAvailableTimes() == null
-                ? new ArrayList<>()
-                : new ArrayList<>(doctor.getAvailableTimes());
-
-        LocalDateTime start = date.atStartOfDay();
-        LocalDateTime end = date.plusDays(1).atStartOfDay().minusNanos(1);
+        List<LocalTime> slots = scheduleService.getSlots(doctorId, date);
+        if (slots.isEmpty()) return List.of();
 
-        List<Appointment> appts = appointmentRepository
-                .findByDoctorIdAndAppointmentTimeBetween(doctorId, start, end);
+        Set<LocalTime> bookedStarts = null;
+        boolean reloaded = false;
 
-        Set<String> bookedSlots = new HashSet<>();
-        for (Appointment a : appts) {
-            if (a.getAppointmentTime() != null) {
-                bookedSlots.add(a.getAppointmentTime().toLocalTime().toString());
+        List<String> available = new ArrayList<>();
+        for (LocalTime start : slots) {
+            Boolean taken = bookedSlotCalendar.hasConflict(doctorId, date.atTime(start), null);
+            if (Boolean.TRUE.equals(taken) && !reloaded) {
+                // Cached bookings may have been cancelled on another instance: re-read the day once
+                bookedSlotCalendar.reload(doctorId, date);
+                reloaded = true;
+                taken = bookedSlotCalendar.hasConflict(doctorId, date.atTime(start), null);
             }
+            if (taken == null) {
+                if (bookedStarts == null) bookedStarts = loadBookedSlots(doctorId, date);
+                taken = overlapsAny(bookedStarts, start);
+            }
+            if (!taken) available.add(start + "-" + start.plusMinutes(Appointment.DURATION_MINUTES));
         }
-
-        available.removeIf(slot -> {
-            if (slot == null) return true;
-            String normalized = slot.trim();
-            return bookedSlots.contains(normalized);
-        });
-
         return available;
     }
 
@@ -64,7 +79,9 @@ public class DoctorService {
             Doctor existing = doctorRepository.findByEmail(doctor.getEmail());
             if (existing != null) return -1;
 
-            doctorRepository.save(doctor);
+            Doctor saved = doctorRepository.save(doctor);
+            scheduleService.syncFromAvailableTimes(saved, null);
+            doctorDirectory.put(saved);
             return 1;
         } catch (Exception e) {
             return 0;
@@ -78,29 +95,56 @@ public class DoctorService {
             boolean exists = doctorRepository.existsById(doctor.getId());
             if (!exists) return -1;
 
+            List<String> previousTimes = new ArrayList<>();
+            for (Object[] row : doctorRepository.findAvailableTimesByDoctorIds(List.of(doctor.getId()))) {
+                previousTimes.add((String) row[1]);
+            }
+
             doctorRepository.save(doctor);
+            scheduleService.syncFromAvailableTimes(doctor, previousTimes);
+            // index the submitted state; merge() copied exactly these fields into the row
+            doctorDirectory.put(doctor);
             return 1;
         } catch (Exception e) {
             return 0;
         }
     }
 
-    public List<Doctor> getDoctors() {
-        return doctorRepository.findAll();
+    // Replaces the weekly template and writes it back to the legacy availableTimes rows, which the
+    // listing and the booking form still show, so both describe the same hours.
+    // 1 saved, -1 doctor not found, 0 invalid input
+    public int saveWeeklySchedule(Long doctorId, WeeklyScheduleDTO schedule) {
+        int result = scheduleService.saveWeeklySchedule(doctorId, schedule);
+        if (result != 1) return result;
+
+        Doctor doctor = doctorRepository.findById(doctorId).orElse(null);
+        if (doctor == null) return -1;
+
+        doctor.setAvailableTimes(new ArrayList<>(scheduleService.weeklyTimes(doctorId)));
+        doctorRepository.save(doctor);
+        doctorDirectory.put(doctor);
+        return 1;
     }
 
-    public int deleteDoctor(long id) {
-        try {
-            if (!doctorRepository.existsById(id)) {
-                return -1;
-            }
+    // Doctor listing read model: one projection query for the doctors + one batched query for their slots.
+    // Without a size the full list is returned (what the dashboards expect); with a size,
+    // at most MAX_LISTING_PAGE_SIZE rows after the "after" id, plus the cursor for the next page.
+    public Map<String, Object> getDoctorListing(Long afterId, Integer size) {
+        Map<String, Object> res = new HashMap<>();
 
-            appointmentRepository.deleteAllByDoctorId(id);
-            doctorRepository.deleteById(id);
-            return 1;
-        } catch (Exception e) {
-            return 0;
+        long after = afterId == null ? 0L : afterId;
+        boolean paged = size != null;
+        int limit = paged ? Math.max(1, Math.min(size, MAX_LISTING_PAGE_SIZE)) : 0;
+
+        List<DoctorListingDTO> doctors = doctorRepository.findListingAfter(after, paged ? Limit.of(limit) : Limit.unlimited());
+        attachAvailableTimes(doctors);
+
+        res.put("doctors", doctors);
+        if (paged) {
+            boolean more = doctors.size() == limit;
+            res.put("nextCursor", more ? doctors.get(doctors.size() - 1).getId() : null);
         }
+        return res;
     }
 
     public ResponseEntity<Map<String, String>> validateDoctor(Login login) {
@@ -122,112 +166,49 @@ public class DoctorService {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(res);
         }
 
-        String token = tokenService.generateToken(doctor.getEmail());
+        String token = tokenService.generateToken(doctor.getEmail(), "doctor", doctor.getId());
         res.put("token", token);
         res.put("message", "Login successful");
         return ResponseEntity.ok(res);
     }
 
-    public Map<String, Object> findDoctorByName(String name) {
+    // Single entry point for doctor search: any subset of name / specialty / AM-PM in one SQL statement
+    public Map<String, Object> filterDoctors(String name, String specialty, String amOrPm) {
         Map<String, Object> res = new HashMap<>();
-        if (name == null) name = "";
-        List<Doctor> doctors = doctorRepository.findByNameLike(name);
-        res.put("doctors", doctors);
+        res.put("doctors", doctorRepository.findAll(DoctorSpecifications.matching(name, specialty, amOrPm)));
         return res;
     }
 
-    public Map<String, Object> filterDoctorsByNameSpecilityandTime(String name, String specialty, String amOrPm) {
-        Map<String, Object> res = new HashMap<>();
-
-        List<Doctor> doctors;
-        if (isBlank(name)) name = "";
-        if (isBlank(specialty)) specialty = "";
-
-        doctors = doctorRepository.findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(name, specialty);
-        doctors = filterDoctorByTime(doctors, amOrPm);
-
-        res.put("doctors", doctors);
-        return res;
-    }
-
-    public Map<String, Object> filterDoctorByNameAndTime(String name, String amOrPm) {
-        Map<String, Object> res = new HashMap<>();
-
-        if (isBlank(name)) name = "";
-
-        List<Doctor> doctors = doctorRepository.findByNameLike(name);
-        doctors = filterDoctorByTime(doctors, amOrPm);
-
-        res.put("doctors", doctors);
-        return res;
-    }
-
-    public Map<String, Object> filterDoctorByNameAndSpecility(String name, String specilty) {
-        Map<String, Object> res = new HashMap<>();
-
-        if (isBlank(name)) name = "";
-        if (isBlank(specilty)) specilty = "";
-
-        List<Doctor> doctors = doctorRepository.findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(name, specilty);
-        res.put("doctors", doctors);
-        return res;
-    }
-
-    public Map<String, Object> filterDoctorByTimeAndSpecility(String specilty, String amOrPm) {
-        Map<String, Object> res = new HashMap<>();
-
-        if (isBlank(specilty)) specilty = "";
-
-        List<Doctor> doctors = doctorRepository.findBySpecialtyIgnoreCase(specilty);
-        doctors = filterDoctorByTime(doctors, amOrPm);
-
-        res.put("doctors", doctors);
-        return res;
-    }
-
-    public Map<String, Object> filterDoctorBySpecility(String specilty) {
-        Map<String, Object> res = new HashMap<>();
-
-        if (isBlank(specilty)) specilty = "";
-
-        List<Doctor> doctors = doctorRepository.findBySpecialtyIgnoreCase(specilty);
-        res.put("doctors", doctors);
-        return res;
+    // Database fallback for days the slot calendar cannot answer
+    private Set<LocalTime> loadBookedSlots(Long doctorId, LocalDate date) {
+        LocalDateTime start = date.atStartOfDay();
+        Set<LocalTime> bookedSlots = new HashSet<>();
+        for (LocalDateTime t : appointmentRepository.findAppointmentTimesByDoctorIdBetween(doctorId, start, start.plusDays(1))) {
+            bookedSlots.add(t.toLocalTime());
+        }
+        return bookedSlots;
     }
 
-    public Map<String, Object> filterDoctorsByTime(String amOrPm) {
-        Map<String, Object> res = new HashMap<>();
-
-        List<Doctor> doctors = doctorRepository.findAll();
-        doctors = filterDoctorByTime(doctors, amOrPm);
-
-        res.put("doctors", doctors);
-        return res;
+    // A start less than one appointment length from a booked one overlaps it
+    private static boolean overlapsAny(Set<LocalTime> bookedStarts, LocalTime start) {
+        Duration length = Duration.ofMinutes(Appointment.DURATION_MINUTES);
+        for (LocalTime t : bookedStarts) {
+            if (Duration.between(t, start).abs().compareTo(length) < 0) return true;
+        }
+        return false;
     }
 
-    private List<Doctor> filterDoctorByTime(List<Doctor> doctors, String amOrPm) {
-        if (doctors == null) return List.of();
-        if (isBlank(amOrPm)) return doctors;
-
-        String target = amOrPm.trim().toUpperCase(); // "AM" or "PM"
-        if (!target.equals("AM") && !target.equals("PM")) return doctors;
-
-        List<Doctor> filtered = new ArrayList<>();
-        for (Doctor d : doctors) {
-            List<String> times = d.getAvailableTimes();
-            if (times == null) continue;
+    private void attachAvailableTimes(List<DoctorListingDTO> doctors) {
+        Map<Long, DoctorListingDTO> byId = new HashMap<>();
+        for (DoctorListingDTO d : doctors) byId.put(d.getId(), d);
 
-            boolean match = times.stream()
-                    .filter(Objects::nonNull)
-                    .map(String::trim)
-                    .anyMatch(t -> t.toUpperCase().endsWith(target));
-
-            if (match) filtered.add(d);
+        List<Long> ids = new ArrayList<>(byId.keySet());
+        for (int i = 0; i < ids.size(); i += SLOT_BATCH_SIZE) {
+            List<Long> batch = ids.subList(i, Math.min(i + SLOT_BATCH_SIZE, ids.size()));
+            for (Object[] row : doctorRepository.findAvailableTimesByDoctorIds(batch)) {
+                DoctorListingDTO d = byId.get((Long) row[0]);
+                if (d != null) d.getAvailableTimes().add((String) row[1]);
+            }
         }
-        return filtered;
-    }
-
-    private boolean isBlank(String s) {
-        return s == null || s.trim().isEmpty() || "null".equalsIgnoreCase(s.trim());
     }
 }
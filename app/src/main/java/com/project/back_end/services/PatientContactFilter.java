@@ -0,0 +1,152 @@
+package com.project.back_end.services;
+
+import com.project.back_end.repo.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bloom filter over every patient email and phone, so signup can tell a certainly-new contact
+// from a possibly-taken one without asking MySQL.
+// "No" is exact for everything this instance has seen; "maybe" is confirmed by the caller with an
+// indexed lookup, and the unique keys on patient.email / patient.phone remain the real guard
+// (signups on other instances and deleted patients are only picked up by the periodic rebuild).
+// Until the first build finishes every lookup answers "maybe".
+@Component
+public class PatientContactFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientContactFilter.class);
+
+    // Room for the signups added between two rebuilds without the false-positive rate drifting up
+    private static final double GROWTH_HEADROOM = 1.5;
+
+    private final PatientRepository patientRepository;
+
+    @Value("${patients.contact-filter.expected-entries:200000}")
+    private int expectedEntries;
+
+    @Value("${patients.contact-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${patients.contact-filter.chunk-size:5000}")
+    private int chunkSize;
+
+    private volatile Bits bits;
+
+    public PatientContactFilter(PatientRepository patientRepository) {
+        this.patientRepository = patientRepository;
+    }
+
+    // 1) rebuild(): fresh filter from all patients, swapped in when complete (startup + periodic).
+    // Sized from the current patient count (expected-entries is only the floor), two keys per patient.
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${patients.contact-filter.rebuild-ms:3600000}",
+               fixedDelayString = "${patients.contact-filter.rebuild-ms:3600000}")
+    public synchronized void rebuild() {
+        try {
+            long patients = Math.max((long) (patientRepository.count() * GROWTH_HEADROOM), expectedEntries);
+            Bits fresh = Bits.sized(patients * 2L, falsePositiveRate);
+            Long afterId = 0L;
+            long count = 0;
+            while (true) {
+                List<Object[]> rows = patientRepository.findContactsAfter(afterId, Limit.of(chunkSize));
+                for (Object[] row : rows) {
+                    fresh.add(emailKey((String) row[1]));
+                    fresh.add(phoneKey((String) row[2]));
+                }
+                count += rows.size();
+                if (rows.size() < chunkSize) break;
+                afterId = (Long) rows.get(rows.size() - 1)[0];
+            }
+            // A signup racing the rebuild may be missed until the next one; the unique keys still catch it
+            bits = fresh;
+            log.info("Patient contact filter built from {} patients", count);
+        } catch (Exception e) {
+            // Keep answering from the previous filter (or "maybe" if there is none)
+            log.warn("Patient contact filter rebuild failed: {}", e.getMessage());
+        }
+    }
+
+    // 2) mightExist(): false only when neither the email nor the phone has been seen
+    public boolean mightExist(String email, String phone) {
+        Bits b = bits;
+        if (b == null) return true;
+        return b.mightContain(emailKey(email)) || b.mightContain(phoneKey(phone));
+    }
+
+    // 3) add(): record a patient this instance has just created
+    public void add(String email, String phone) {
+        Bits b = bits;
+        if (b == null) return;
+        b.add(emailKey(email));
+        b.add(phoneKey(phone));
+    }
+
+    // ---------- Helpers ----------
+
+    private static String emailKey(String email) {
+        return "e:" + (email == null ? "" : email.trim().toLowerCase());
+    }
+
+    private static String phoneKey(String phone) {
+        return "p:" + (phone == null ? "" : phone.trim());
+    }
+
+    // Lock-free bit set with k probes from double hashing of a 64-bit FNV-1a hash
+    private static final class Bits {
+        private final AtomicLongArray words;
+        private final long size;
+        private final int probes;
+
+        private Bits(long size, int probes) {
+            this.words = new AtomicLongArray((int) ((size + 63) / 64));
+            this.size = size;
+            this.probes = probes;
+        }
+
+        static Bits sized(long entries, double fpp) {
+            long n = Math.max(entries, 1);
+            long m = (long) Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+            int k = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+            return new Bits(Math.max(m, 64), k);
+        }
+
+        void add(String key) {
+            long h = hash(key);
+            int h1 = (int) h;
+            int h2 = (int) (h >>> 32);
+            for (int i = 1; i <= probes; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, size);
+                words.getAndAccumulate((int) (bit >>> 6), 1L << bit, (a, b) -> a | b);
+            }
+        }
+
+        boolean mightContain(String key) {
+            long h = hash(key);
+            int h1 = (int) h;
+            int h2 = (int) (h >>> 32);
+            for (int i = 1; i <= probes; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, size);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+            }
+            return true;
+        }
+
+        private static long hash(String key) {
+            long h = 0xcbf29ce484222325L;
+            for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+                h ^= b;
+                h *= 0x100000001b3L;
+            }
+            return h;
+        }
+    }
+}
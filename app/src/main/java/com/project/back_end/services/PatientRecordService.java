@@ -0,0 +1,207 @@
+package com.project.back_end.services;
+
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.models.Prescription;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.PrescriptionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+// A patient's record for the doctor view: appointments from MySQL merged with their prescriptions from Mongo.
+// - Without a limit the whole record is returned, and both stores are read at the same time on
+//   recordFetchExecutor: the appointment DTOs (walked page by page along the keyset cursor) and the
+//   patient's prescriptions (idx_prescription_patient_time, one query).
+// - With a limit one page is returned with the same cursor as the patient history endpoints; its
+//   prescriptions are one $in over the ids of that page, read once the page is known.
+// Each store has its own deadline, enforced by the store as well: the MySQL reads run in a read-only
+// transaction whose timeout becomes the JDBC query timeout, and the Mongo reads carry maxTimeMS, so work
+// the caller gave up on does not keep holding recordFetchExecutor threads and pooled connections.
+// In a paged read the Mongo deadline starts when the page arrives. A store that is late or failing is
+// reported under "unavailable" and the record is returned with what the other store produced.
+@Service
+public class PatientRecordService {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientRecordService.class);
+
+    private final AppointmentRepository appointmentRepository;
+    private final PrescriptionRepository prescriptionRepository;
+    private final TaskExecutor executor;
+    private final TransactionTemplate mysqlReads;
+    private final long mysqlTimeoutMillis;
+    private final Duration mongoTimeout;
+
+    @Value("${appointments.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${appointments.page.max-size:200}")
+    private int maxPageSize;
+
+    public PatientRecordService(AppointmentRepository appointmentRepository,
+                                PrescriptionRepository prescriptionRepository,
+                                @Qualifier("recordFetchExecutor") TaskExecutor executor,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${patients.record.mysql-timeout-ms:2000}") long mysqlTimeoutMillis,
+                                @Value("${patients.record.mongo-timeout-ms:2000}") long mongoTimeoutMillis) {
+        this.appointmentRepository = appointmentRepository;
+        this.prescriptionRepository = prescriptionRepository;
+        this.executor = executor;
+        this.mysqlTimeoutMillis = mysqlTimeoutMillis;
+        this.mongoTimeout = Duration.ofMillis(mongoTimeoutMillis);
+
+        // Transaction timeouts are whole seconds; every query in the transaction gets the time left
+        this.mysqlReads = new TransactionTemplate(transactionManager);
+        this.mysqlReads.setReadOnly(true);
+        this.mysqlReads.setTimeout((int) Math.max(1, (mysqlTimeoutMillis + 999) / 1000));
+    }
+
+    // 1) getRecord(Long patientId, String cursor, Integer limit)
+    public ResponseEntity<Map<String, Object>> getRecord(Long patientId, String cursor, Integer limit) {
+        Map<String, Object> res = new LinkedHashMap<>();
+
+        if (patientId == null) {
+            res.put("message", "Missing patientId");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res);
+        }
+
+        AppointmentCursor after;
+        try {
+            after = AppointmentCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            res.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res);
+        }
+        AppointmentCursor from = after == null ? AppointmentCursor.START : after;
+
+        long started = System.nanoTime();
+        CompletableFuture<List<AppointmentDTO>> appointments;
+        CompletableFuture<Map<Long, List<Prescription>>> prescriptions;
+        int size = limit == null ? Integer.MAX_VALUE
+                : (limit <= 0) ? defaultPageSize : Math.min(limit, maxPageSize);
+        if (limit == null) {
+            appointments = submit(() -> mysqlReads.execute(status -> allAppointments(patientId, from)));
+            prescriptions = submit(() -> group(prescriptionRepository.findByPatientId(patientId, mongoTimeout)));
+        } else {
+            // One extra row tells whether another page exists
+            Limit fetch = Limit.of(size + 1);
+            appointments = submit(() -> mysqlReads.execute(status -> appointmentRepository
+                    .findDTOPageByPatientId(patientId, from.getTime(), from.getId(), fetch)));
+            prescriptions = appointments.thenApplyAsync(rows -> group(prescriptionRepository.findByAppointmentIdIn(
+                    rows.stream().limit(size).map(AppointmentDTO::getId).toList(), mongoTimeout)), executor);
+        }
+
+        List<String> unavailable = new ArrayList<>();
+        List<AppointmentDTO> rows = await(appointments, started, mysqlTimeoutMillis, "appointments", unavailable);
+        // Both stores start together for the whole record; a page's prescriptions start once the page is in
+        long mongoStarted = limit == null ? started : System.nanoTime();
+        Map<Long, List<Prescription>> byAppointment = await(prescriptions, mongoStarted,
+                mongoTimeout.toMillis(), "prescriptions", unavailable);
+
+        res.put("patientId", patientId);
+        if (rows != null) {
+            boolean more = rows.size() > size;
+            List<AppointmentDTO> page = more ? rows.subList(0, size) : rows;
+
+            List<Map<String, Object>> merged = new ArrayList<>(page.size());
+            for (AppointmentDTO a : page) merged.add(merge(a, byAppointment));
+            res.put("appointments", merged);
+
+            AppointmentDTO last = page.isEmpty() ? null : page.get(page.size() - 1);
+            res.put("nextCursor", more ? new AppointmentCursor(last.getAppointmentTime(), last.getId()).encode() : null);
+        } else {
+            res.put("appointments", List.of());
+            res.put("nextCursor", null);
+            // Appointments are missing; keep the prescriptions, grouped by appointment id.
+            // A paged read never gets here with prescriptions: they need the page first.
+            if (byAppointment != null) res.put("prescriptions", byAppointment);
+        }
+        res.put("partial", !unavailable.isEmpty());
+        res.put("unavailable", unavailable);
+        return ResponseEntity.ok(res);
+    }
+
+    // ---------- Helpers ----------
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            // Pool and queue are full: this side is served as unavailable rather than waiting
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // Result, or null (and the store named in "unavailable") if it failed or missed its deadline
+    private <T> T await(CompletableFuture<T> future, long startedNanos, long timeoutMillis,
+                        String store, List<String> unavailable) {
+        try {
+            long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis) - (System.nanoTime() - startedNanos);
+            return future.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            log.warn("Patient record: {} timed out after {} ms", store, timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.warn("Patient record: {} failed: {}", store, e.getCause().getMessage());
+        }
+        unavailable.add(store);
+        return null;
+    }
+
+    // Every appointment after the cursor, following the keyset in pages of appointments.page.max-size
+    private List<AppointmentDTO> allAppointments(Long patientId, AppointmentCursor from) {
+        List<AppointmentDTO> all = new ArrayList<>();
+        Limit page = Limit.of(maxPageSize);
+        AppointmentCursor after = from;
+        while (true) {
+            List<AppointmentDTO> rows = appointmentRepository
+                    .findDTOPageByPatientId(patientId, after.getTime(), after.getId(), page);
+            all.addAll(rows);
+            if (rows.size() < maxPageSize) return all;
+            AppointmentDTO last = rows.get(rows.size() - 1);
+            after = new AppointmentCursor(last.getAppointmentTime(), last.getId());
+        }
+    }
+
+    private Map<Long, List<Prescription>> group(List<Prescription> prescriptions) {
+        Map<Long, List<Prescription>> grouped = new HashMap<>();
+        for (Prescription p : prescriptions) {
+            grouped.computeIfAbsent(p.getAppointmentId(), k -> new ArrayList<>()).add(p);
+        }
+        return grouped;
+    }
+
+    // Appointment fields plus its prescriptions; null prescriptions when Mongo was unavailable
+    private Map<String, Object> merge(AppointmentDTO a, Map<Long, List<Prescription>> byAppointment) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", a.getId());
+        m.put("doctorId", a.getDoctorId());
+        m.put("doctorName", a.getDoctorName());
+        m.put("patientId", a.getPatientId());
+        m.put("patientName", a.getPatientName());
+        m.put("patientEmail", a.getPatientEmail());
+        m.put("patientPhone", a.getPatientPhone());
+        m.put("patientAddress", a.getPatientAddress());
+        m.put("appointmentTime", a.getAppointmentTime());
+        m.put("appointmentDate", a.getAppointmentDate());
+        m.put("appointmentTimeOnly", a.getAppointmentTimeOnly());
+        m.put("endTime", a.getEndTime());
+        m.put("status", a.getStatus());
+        m.put("prescriptions", byAppointment == null ? null : byAppointment.getOrDefault(a.getId(), List.of()));
+        return m;
+    }
+}
@@ -1,41 +1,64 @@
 package com.project.back_end.services;
 
 import com.project.back_end.DTO.AppointmentDTO;
-import com.project.back_end.models.Appointment;
 import com.project.back_end.models.Patient;
 import com.project.back_end.repo.AppointmentRepository;
 import com.project.back_end.repo.PatientRepository;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import java.util.*;
+import java.util.function.BiFunction;
 @Service
 public class PatientService {
     private final PatientRepository patientRepository;
     private final AppointmentRepository appointmentRepository;
-    private final TokenService tokenService;
+    private final AuthenticatedPrincipal principal;
+    private final PatientContactFilter contactFilter;
+
+    @Value("${appointments.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${appointments.page.max-size:200}")
+    private int maxPageSize;
 
     public PatientService(PatientRepository patientRepository,
                           AppointmentRepository appointmentRepository,
-                          TokenService tokenService) {
+                          AuthenticatedPrincipal principal,
+                          PatientContactFilter contactFilter) {
         this.patientRepository = patientRepository;
         this.appointmentRepository = appointmentRepository;
-        this.tokenService = tokenService;
+        this.principal = principal;
+        this.contactFilter = contactFilter;
     }
 
-    // 1) createPatient(Patient patient)
+    // 1) createPatient(Patient patient): 1 created, -1 email or phone already taken, 0 failed
+    // A contact the filter has never seen goes straight to a single INSERT; a possible match is
+    // confirmed with one indexed lookup first. The unique keys catch anything both checks miss.
     public int createPatient(Patient patient) {
+        if (patient == null) return 0;
         try {
-            patientRepository.save(patient);
+            if (contactFilter.mightExist(patient.getEmail(), patient.getPhone())
+                    && patientRepository.existsByEmailOrPhone(patient.getEmail(), patient.getPhone())) {
+                return -1;
+            }
+            patientRepository.saveAndFlush(patient);
+            contactFilter.add(patient.getEmail(), patient.getPhone());
             return 1;
+        } catch (DataIntegrityViolationException e) {
+            return isDuplicateContact(e) ? -1 : 0;
         } catch (Exception e) {
             return 0;
         }
     }
 
-    // 2) getPatientAppointment(Long id, String token)
-    public ResponseEntity<Map<String, Object>> getPatientAppointment(Long id, String token) {
+    // 2) getPatientAppointment(Long id, String token, String cursor, Integer limit)
+    public ResponseEntity<Map<String, Object>> getPatientAppointment(Long id, String token, String cursor, Integer limit) {
         Map<String, Object> res = new HashMap<>();
 
         if (id == null || token == null || token.isBlank()) {
@@ -43,26 +66,23 @@ public class PatientService {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res);
         }
 
-        Patient patientFromToken = getPatientFromToken(token);
-        if (patientFromToken == null) {
+        Long patientIdFromToken = principal.resolve(token) ? principal.getPatientId() : null;
+        if (patientIdFromToken == null) {
             res.put("message", "Invalid token");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(res);
         }
 
-        if (!patientFromToken.getId().equals(id)) {
+        if (!patientIdFromToken.equals(id)) {
             res.put("message", "Unauthorized: patientId does not match token");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(res);
         }
 
-        List<Appointment> appointments = appointmentRepository.findByPatientId(id);
-        List<AppointmentDTO> dtoList = appointments.stream().map(this::toDTO).toList();
-
-        res.put("appointments", dtoList);
-        return ResponseEntity.ok(res);
+        return page(res, cursor, limit, (after, max) -> appointmentRepository
+                .findDTOPageByPatientId(id, after.getTime(), after.getId(), max));
     }
 
-    // 3) filterByCondition(String condition, Long id)
-    public ResponseEntity<Map<String, Object>> filterByCondition(String condition, Long id) {
+    // 3) filterByCondition(String condition, Long id, String cursor, Integer limit)
+    public ResponseEntity<Map<String, Object>> filterByCondition(String condition, Long id, String cursor, Integer limit) {
         Map<String, Object> res = new HashMap<>();
 
         if (id == null) {
@@ -76,16 +96,12 @@ public class PatientService {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res);
         }
 
-        List<Appointment> appointments = appointmentRepository
-                .findByPatient_IdAndStatusOrderByAppointmentTimeAsc(id, status);
-
-        List<AppointmentDTO> dtoList = appointments.stream().map(this::toDTO).toList();
-        res.put("appointments", dtoList);
-        return ResponseEntity.ok(res);
+        return page(res, cursor, limit, (after, max) -> appointmentRepository
+                .findDTOPageByPatientIdAndStatus(id, status, after.getTime(), after.getId(), max));
     }
 
-    // 4) filterByDoctor(String name, Long patientId)
-    public ResponseEntity<Map<String, Object>> filterByDoctor(String name, Long patientId) {
+    // 4) filterByDoctor(String name, Long patientId, String cursor, Integer limit)
+    public ResponseEntity<Map<String, Object>> filterByDoctor(String name, Long patientId, String cursor, Integer limit) {
         Map<String, Object> res = new HashMap<>();
 
         if (patientId == null) {
@@ -94,15 +110,13 @@ public class PatientService {
         }
 
         String doctorName = (name == null) ? "" : name.trim();
-        List<Appointment> appointments = appointmentRepository.filterByDoctorNameAndPatientId(doctorName, patientId);
-
-        List<AppointmentDTO> dtoList = appointments.stream().map(this::toDTO).toList();
-        res.put("appointments", dtoList);
-        return ResponseEntity.ok(res);
+        return page(res, cursor, limit, (after, max) -> appointmentRepository
+                .filterDTOPageByDoctorNameAndPatientId(doctorName, patientId, after.getTime(), after.getId(), max));
     }
 
-    // 5) filterByDoctorAndCondition(String condition, String name, long patientId)
-    public ResponseEntity<Map<String, Object>> filterByDoctorAndCondition(String condition, String name, long patientId) {
+    // 5) filterByDoctorAndCondition(String condition, String name, long patientId, String cursor, Integer limit)
+    public ResponseEntity<Map<String, Object>> filterByDoctorAndCondition(String condition, String name, long patientId,
+                                                                          String cursor, Integer limit) {
         Map<String, Object> res = new HashMap<>();
 
         int status = conditionToStatus(condition);
@@ -113,12 +127,9 @@ public class PatientService {
 
         String doctorName = (name == null) ? "" : name.trim();
 
-        List<Appointment> appointments = appointmentRepository
-                .filterByDoctorNameAndPatientIdAndStatus(doctorName, patientId, status);
-
-        List<AppointmentDTO> dtoList = appointments.stream().map(this::toDTO).toList();
-        res.put("appointments", dtoList);
-        return ResponseEntity.ok(res);
+        return page(res, cursor, limit, (after, max) -> appointmentRepository
+                .filterDTOPageByDoctorNameAndPatientIdAndStatus(doctorName, patientId, status,
+                        after.getTime(), after.getId(), max));
     }
 
     // 6) getPatientDetails(String token)
@@ -142,14 +153,53 @@ public class PatientService {
 
     // ---------- Helpers ----------
 
+    // Reuses the request's principal, so the patient row is loaded at most once per request
     private Patient getPatientFromToken(String token) {
+        return principal.resolve(token) ? principal.getPatient() : null;
+    }
+
+    // Appointments in (appointmentTime, id) order. Without a cursor or limit the full list is returned
+    // (what the dashboards expect); with either, one keyset page plus "nextCursor", null on the last page.
+    private ResponseEntity<Map<String, Object>> page(Map<String, Object> res, String cursor, Integer limit,
+                                                     BiFunction<AppointmentCursor, Limit, List<AppointmentDTO>> query) {
+        AppointmentCursor after;
         try {
-            String email = tokenService.extractEmail(token);
-            if (email == null || email.isBlank()) return null;
-            return patientRepository.findByEmail(email);
-        } catch (Exception e) {
-            return null;
+            after = AppointmentCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            res.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res);
+        }
+        boolean paged = after != null || limit != null;
+        if (after == null) after = AppointmentCursor.START;
+
+        if (!paged) {
+            res.put("appointments", query.apply(after, Limit.unlimited()));
+            return ResponseEntity.ok(res);
+        }
+
+        int size = (limit == null || limit <= 0) ? defaultPageSize : Math.min(limit, maxPageSize);
+
+        // One extra row tells whether another page exists without a count query
+        List<AppointmentDTO> rows = query.apply(after, Limit.of(size + 1));
+        boolean more = rows.size() > size;
+        List<AppointmentDTO> pageRows = more ? rows.subList(0, size) : rows;
+
+        AppointmentDTO last = pageRows.isEmpty() ? null : pageRows.get(pageRows.size() - 1);
+        res.put("appointments", pageRows);
+        res.put("nextCursor", more ? new AppointmentCursor(last.getAppointmentTime(), last.getId()).encode() : null);
+        return ResponseEntity.ok(res);
+    }
+
+    // Only the unique keys on email / phone mean "already registered"; other violations are failures
+    private boolean isDuplicateContact(DataIntegrityViolationException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof ConstraintViolationException cve && cve.getConstraintName() != null) {
+                String name = cve.getConstraintName().toLowerCase();
+                return name.contains("uk_patient_email") || name.contains("uk_patient_phone");
+            }
         }
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.contains("Duplicate entry");
     }
 
     private int conditionToStatus(String condition) {
@@ -161,22 +211,4 @@ public class PatientService {
 
         return Integer.MIN_VALUE;
     }
-
-    private AppointmentDTO toDTO(Appointment a) {
-        var d = a.getDoctor();
-        var p = a.getPatient();
-
-        return new AppointmentDTO(
-                a.getId(),
-                d != null ? d.getId() : null,
-                d != null ? d.getName() : null,
-                p != null ? p.getId() : null,
-                p != null ? p.getName() : null,
-                p != null ? p.getEmail() : null,
-                p != null ? p.getPhone() : null,
-                p != null ? p.getAddress() : null,
-                a.getAppointmentTime(),
-                a.getStatus()
-        );
-    }
 }
@@ -0,0 +1,148 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Prescription;
+import com.project.back_end.repo.AppointmentRepository;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Fills patientId / doctorId / prescribedAt on prescriptions saved before those fields existed.
+// Runs in the background after startup, in _id order and chunks of prescriptions.backfill.chunk-size:
+// one MySQL lookup for the chunk's appointments, then one unordered bulk update in Mongo.
+// prescribedAt is taken from the ObjectId creation time, which is when the document was inserted.
+// Documents whose appointment no longer exists get null ids, so they are not picked up again.
+// Idempotent; safe to run on every instance.
+@Component
+public class PrescriptionBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(PrescriptionBackfill.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final AppointmentRepository appointmentRepository;
+    private final TaskExecutor taskExecutor;
+
+    @Value("${prescriptions.backfill.chunk-size:1000}")
+    private int chunkSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong updated = new AtomicLong();
+    private final AtomicLong orphaned = new AtomicLong();
+    private volatile long lastRunAt;
+    private volatile long lastDurationMillis;
+    private volatile String lastError;
+
+    public PrescriptionBackfill(MongoTemplate mongoTemplate,
+                                AppointmentRepository appointmentRepository,
+                                @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+        this.mongoTemplate = mongoTemplate;
+        this.appointmentRepository = appointmentRepository;
+        this.taskExecutor = taskExecutor;
+    }
+
+    // 1) start(): run in the background unless a run is already in progress
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!running.compareAndSet(false, true)) return;
+        try {
+            taskExecutor.execute(this::run);
+        } catch (RuntimeException e) {
+            running.set(false);
+            lastError = e.getMessage();
+        }
+    }
+
+    // 2) metrics(): progress for the admin status endpoint
+    public Map<String, Object> metrics() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("running", running.get());
+        m.put("updated", updated.get());
+        m.put("orphaned", orphaned.get());
+        m.put("lastRunAt", lastRunAt == 0 ? null : new Date(lastRunAt));
+        m.put("lastDurationMillis", lastDurationMillis);
+        m.put("lastError", lastError);
+        return m;
+    }
+
+    // ---------- Helpers ----------
+
+    private void run() {
+        long started = System.currentTimeMillis();
+        try {
+            ObjectId afterId = null;
+            while (true) {
+                Criteria missing = Criteria.where("patientId").exists(false);
+                Query query = new Query(afterId == null ? missing
+                        : new Criteria().andOperator(missing, Criteria.where("_id").gt(afterId)))
+                        .with(Sort.by("_id"))
+                        .limit(chunkSize);
+                query.fields().include("_id", "appointmentId", "prescribedAt");
+
+                List<Document> docs = mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Prescription.class));
+                if (docs.isEmpty()) break;
+
+                backfillChunk(docs);
+                afterId = docs.get(docs.size() - 1).getObjectId("_id");
+                if (docs.size() < chunkSize) break;
+            }
+            lastError = null;
+        } catch (Exception e) {
+            // Documents already updated stay updated; the next run continues with the rest
+            lastError = e.getMessage();
+            log.warn("Prescription backfill failed: {}", e.getMessage());
+        } finally {
+            lastRunAt = started;
+            lastDurationMillis = System.currentTimeMillis() - started;
+            running.set(false);
+        }
+    }
+
+    private void backfillChunk(List<Document> docs) {
+        Set<Long> appointmentIds = new HashSet<>();
+        for (Document d : docs) {
+            Object id = d.get("appointmentId");
+            if (id instanceof Number n) appointmentIds.add(n.longValue());
+        }
+        Map<Long, Object[]> participants = new HashMap<>();
+        if (!appointmentIds.isEmpty()) {
+            for (Object[] row : appointmentRepository.findParticipantsByIds(appointmentIds)) participants.put((Long) row[0], row);
+        }
+
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Prescription.class);
+        for (Document d : docs) {
+            ObjectId id = d.getObjectId("_id");
+            Object appointmentId = d.get("appointmentId");
+            Object[] row = appointmentId instanceof Number n ? participants.get(n.longValue()) : null;
+
+            Update update = new Update()
+                    .set("patientId", row == null ? null : row[2])
+                    .set("doctorId", row == null ? null : row[1]);
+            if (d.get("prescribedAt") == null) {
+                update.set("prescribedAt", LocalDateTime.ofInstant(id.getDate().toInstant(), ZoneId.systemDefault()));
+            }
+            ops.updateOne(Query.query(Criteria.where("_id").is(id)), update);
+
+            if (row == null) orphaned.incrementAndGet();
+        }
+        ops.execute();
+        updated.addAndGet(docs.size());
+    }
+}
@@ -0,0 +1,184 @@
+package com.project.back_end.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.project.back_end.models.Prescription;
+import com.project.back_end.repo.AppointmentRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Bulk prescription writes for end-of-shift charting and EMR migrations.
+// The body (a JSON array, or NDJSON with one object per line) is read as a stream; each item is
+// validated with the bean-validation constraints on Prescription, and valid items are inserted in
+// unordered bulk writes of prescriptions.bulk.batch-size, so one bad document never blocks the rest.
+// Every item gets a result at its 0-based position: the new id, or the reason it was not written.
+@Service
+public class PrescriptionBulkService {
+
+    private final MongoTemplate mongoTemplate;
+    private final AppointmentRepository appointmentRepository;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    @Value("${prescriptions.bulk.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${prescriptions.bulk.max-items:50000}")
+    private int maxItems;
+
+    public PrescriptionBulkService(MongoTemplate mongoTemplate,
+                                   AppointmentRepository appointmentRepository,
+                                   Validator validator,
+                                   ObjectMapper objectMapper) {
+        this.mongoTemplate = mongoTemplate;
+        this.appointmentRepository = appointmentRepository;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+    }
+
+    // 1) saveAll(): stream, validate and write; never throws for bad items
+    public Map<String, Object> saveAll(InputStream body) throws IOException {
+        long started = System.currentTimeMillis();
+        List<Map<String, Object>> results = new ArrayList<>();
+        List<Pending> batch = new ArrayList<>(batchSize);
+        long written = 0;
+        String stoppedBecause = null;
+
+        // readValues() unwraps a top-level array and also reads whitespace-separated (NDJSON) objects
+        try (MappingIterator<JsonNode> items = objectMapper.readerFor(JsonNode.class).readValues(body)) {
+            int index = 0;
+            while (true) {
+                JsonNode node;
+                try {
+                    if (!items.hasNextValue()) break;
+                    node = items.nextValue();
+                } catch (JsonProcessingException e) {
+                    // Malformed JSON cannot be resynchronised; keep what was read so far
+                    stoppedBecause = "Malformed JSON at item " + index;
+                    break;
+                }
+                if (index >= maxItems) {
+                    stoppedBecause = "Only the first " + maxItems + " items are accepted per request";
+                    break;
+                }
+
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("index", index++);
+                results.add(result);
+
+                Prescription p = toPrescription(node, result);
+                if (p == null) continue;
+
+                batch.add(new Pending(p, result));
+                if (batch.size() >= batchSize) written += flush(batch);
+            }
+        }
+        written += flush(batch);
+
+        long failed = results.size() - written;
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("message", stoppedBecause != null ? stoppedBecause
+                : failed == 0 ? "Prescriptions saved" : "Prescriptions saved with errors");
+        res.put("saved", written);
+        res.put("failed", failed);
+        res.put("results", results);
+        res.put("elapsedMillis", System.currentTimeMillis() - started);
+        return res;
+    }
+
+    // ---------- Helpers ----------
+
+    // null (with the error recorded) when the item cannot be written
+    private Prescription toPrescription(JsonNode node, Map<String, Object> result) {
+        if (!node.isObject()) {
+            result.put("error", "Expected a JSON object");
+            return null;
+        }
+        Prescription p;
+        try {
+            p = objectMapper.treeToValue(node, Prescription.class);
+        } catch (JsonProcessingException e) {
+            result.put("error", "Invalid field: " + e.getOriginalMessage());
+            return null;
+        }
+
+        Set<ConstraintViolation<Prescription>> violations = validator.validate(p);
+        if (!violations.isEmpty()) {
+            result.put("error", violations.iterator().next().getMessage());
+            return null;
+        }
+
+        // Ids are assigned here so they can be reported without reading the documents back
+        p.setId(new ObjectId().toHexString());
+        return p;
+    }
+
+    // One participant lookup in MySQL and one unordered insertMany; returns the number of documents written
+    private int flush(List<Pending> batch) {
+        if (batch.isEmpty()) return 0;
+
+        // Patient and doctor are copied from the appointment, as in PrescriptionService.savePrescription
+        Set<Long> appointmentIds = new HashSet<>();
+        for (Pending x : batch) appointmentIds.add(x.prescription().getAppointmentId());
+        Map<Long, Object[]> participants = new HashMap<>();
+        for (Object[] row : appointmentRepository.findParticipantsByIds(appointmentIds)) participants.put((Long) row[0], row);
+
+        LocalDateTime now = LocalDateTime.now();
+        batch.removeIf(x -> {
+            Object[] row = participants.get(x.prescription().getAppointmentId());
+            if (row == null) {
+                x.result().put("error", "Invalid appointment ID");
+                return true;
+            }
+            x.prescription().setDoctorId((Long) row[1]);
+            x.prescription().setPatientId((Long) row[2]);
+            // Migrated records may carry their original time
+            if (x.prescription().getPrescribedAt() == null) x.prescription().setPrescribedAt(now);
+            return false;
+        });
+        if (batch.isEmpty()) return 0;
+
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Prescription.class);
+        ops.insert(batch.stream().map(Pending::prescription).toList());
+
+        Map<Integer, String> failures = new HashMap<>();
+        try {
+            ops.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) failures.put(error.getIndex(), error.getMessage());
+        } catch (RuntimeException e) {
+            // The whole batch failed (e.g. connection lost); nothing in it is reported as saved
+            for (int i = 0; i < batch.size(); i++) failures.put(i, e.getMessage());
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            Pending x = batch.get(i);
+            String error = failures.get(i);
+            if (error == null) {
+                x.result().put("id", x.prescription().getId());
+            } else {
+                x.result().put("error", error);
+            }
+        }
+        int written = batch.size() - failures.size();
+        batch.clear();
+        return written;
+    }
+
+    private record Pending(Prescription prescription, Map<String, Object> result) {
+    }
+}
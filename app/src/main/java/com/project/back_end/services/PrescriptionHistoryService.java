@@ -0,0 +1,119 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Prescription;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Medication history per patient or per doctor, newest first, read from Mongo alone.
+// Each page is one range scan of idx_prescription_patient_time / idx_prescription_doctor_time,
+// keyset on (prescribedAt, _id) with an opaque nextCursor, optionally limited to [from, to] dates.
+@Service
+public class PrescriptionHistoryService {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${prescriptions.history.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${prescriptions.history.max-size:200}")
+    private int maxPageSize;
+
+    public PrescriptionHistoryService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // 1) byPatient(Long patientId, ...)
+    public ResponseEntity<Map<String, Object>> byPatient(Long patientId, LocalDate from, LocalDate to,
+                                                         String cursor, Integer limit) {
+        return page("patientId", patientId, from, to, cursor, limit);
+    }
+
+    // 2) byDoctor(Long doctorId, ...)
+    public ResponseEntity<Map<String, Object>> byDoctor(Long doctorId, LocalDate from, LocalDate to,
+                                                        String cursor, Integer limit) {
+        return page("doctorId", doctorId, from, to, cursor, limit);
+    }
+
+    // ---------- Helpers ----------
+
+    private ResponseEntity<Map<String, Object>> page(String key, Long value, LocalDate from, LocalDate to,
+                                                     String cursor, Integer limit) {
+        Map<String, Object> res = new HashMap<>();
+        if (value == null) {
+            res.put("message", "Missing " + key);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res);
+        }
+
+        Position after;
+        try {
+            after = Position.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            res.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res);
+        }
+        int size = (limit == null || limit <= 0) ? defaultPageSize : Math.min(limit, maxPageSize);
+
+        List<Criteria> where = new ArrayList<>();
+        where.add(Criteria.where(key).is(value));
+        if (from != null || to != null) {
+            Criteria range = Criteria.where("prescribedAt");
+            if (from != null) range = range.gte(from.atStartOfDay());
+            if (to != null) range = range.lt(to.plusDays(1).atStartOfDay());
+            where.add(range);
+        }
+        if (after != null) {
+            where.add(new Criteria().orOperator(
+                    Criteria.where("prescribedAt").lt(after.time()),
+                    new Criteria().andOperator(
+                            Criteria.where("prescribedAt").is(after.time()),
+                            Criteria.where("_id").lt(new ObjectId(after.id())))));
+        }
+
+        Query query = new Query(new Criteria().andOperator(where.toArray(new Criteria[0])))
+                .with(Sort.by(Sort.Order.desc("prescribedAt"), Sort.Order.desc("_id")))
+                .limit(size + 1);
+        List<Prescription> rows = mongoTemplate.find(query, Prescription.class);
+
+        // One extra document tells whether another page exists
+        boolean more = rows.size() > size;
+        List<Prescription> pageRows = more ? rows.subList(0, size) : rows;
+        Prescription last = pageRows.isEmpty() ? null : pageRows.get(pageRows.size() - 1);
+
+        res.put("prescriptions", pageRows);
+        res.put("nextCursor", more ? new Position(last.getPrescribedAt(), last.getId()).encode() : null);
+        return ResponseEntity.ok(res);
+    }
+
+    private record Position(LocalDateTime time, String id) {
+
+        String encode() {
+            String raw = time + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Position decode(String token) {
+            if (token == null || token.isBlank()) return null;
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+                int sep = raw.indexOf('|');
+                String id = raw.substring(sep + 1);
+                if (!ObjectId.isValid(id)) throw new IllegalArgumentException();
+                return new Position(LocalDateTime.parse(raw.substring(0, sep)), id);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+        }
+    }
+}
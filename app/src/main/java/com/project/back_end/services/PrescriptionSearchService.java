@@ -0,0 +1,176 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Prescription;
+import com.project.back_end.models.PrescriptionTerm;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+
+// Full-text search over medication and doctor notes, e.g. every prescription mentioning a drug.
+// 1. Each query word is expanded through prescription_terms into the indexed words it may mean:
+//    itself, words it is a prefix of, and words one edit away (typos). All index lookups.
+// 2. One aggregation: $text on the text index (medication weighted above notes), optional
+//    doctor / date filters, ranked by text score and paged by an opaque (score, _id) cursor.
+// Matching, ranking and paging all run in Mongo; only the page itself reaches the JVM.
+@Service
+public class PrescriptionSearchService {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${prescriptions.search.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${prescriptions.search.max-size:100}")
+    private int maxPageSize;
+
+    @Value("${prescriptions.search.max-words:5}")
+    private int maxWords;
+
+    @Value("${prescriptions.search.max-expansions:20}")
+    private int maxExpansions;
+
+    @Value("${prescriptions.search.max-time-ms:2000}")
+    private long maxTimeMillis;
+
+    public PrescriptionSearchService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // 1) search(String q, Long doctorId, LocalDate from, LocalDate to, String cursor, Integer limit)
+    public ResponseEntity<Map<String, Object>> search(String q, Long doctorId, LocalDate from, LocalDate to,
+                                                      String cursor, Integer limit) {
+        Map<String, Object> res = new HashMap<>();
+
+        List<String> words = new ArrayList<>(SearchTerms.words(q));
+        if (words.isEmpty()) {
+            res.put("message", "q needs at least one word of " + SearchTerms.MIN_LENGTH + " or more characters");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res);
+        }
+        if (words.size() > maxWords) words = words.subList(0, maxWords);
+
+        Position after;
+        try {
+            after = Position.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            res.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res);
+        }
+        int size = (limit == null || limit <= 0) ? defaultPageSize : Math.min(limit, maxPageSize);
+
+        try {
+            Set<String> terms = new LinkedHashSet<>();
+            for (String word : words) terms.addAll(expand(word));
+
+            List<AggregationOperation> stages = new ArrayList<>();
+            stages.add(Aggregation.match(TextCriteria.forDefaultLanguage().matchingAny(terms.toArray(new String[0]))));
+            Criteria filter = filter(doctorId, from, to);
+            if (filter != null) stages.add(Aggregation.match(filter));
+            stages.add(context -> new Document("$addFields", new Document("score", new Document("$meta", "textScore"))));
+            if (after != null) {
+                stages.add(Aggregation.match(new Criteria().orOperator(
+                        Criteria.where("score").lt(after.score()),
+                        new Criteria().andOperator(
+                                Criteria.where("score").is(after.score()),
+                                Criteria.where("_id").lt(new ObjectId(after.id()))))));
+            }
+            stages.add(Aggregation.sort(Sort.by(Sort.Order.desc("score"), Sort.Order.desc("_id"))));
+            // One extra document tells whether another page exists
+            stages.add(Aggregation.limit(size + 1));
+
+            Aggregation aggregation = Aggregation.newAggregation(stages)
+                    .withOptions(AggregationOptions.builder().maxTime(Duration.ofMillis(maxTimeMillis)).build());
+            List<Prescription> rows = mongoTemplate.aggregate(aggregation, Prescription.class, Prescription.class)
+                    .getMappedResults();
+
+            boolean more = rows.size() > size;
+            List<Prescription> page = more ? rows.subList(0, size) : rows;
+            Prescription last = page.isEmpty() ? null : page.get(page.size() - 1);
+
+            res.put("terms", terms);
+            res.put("prescriptions", page);
+            res.put("nextCursor", more ? new Position(last.getScore(), last.getId()).encode() : null);
+            return ResponseEntity.ok(res);
+        } catch (DataAccessException e) {
+            res.put("message", "Something went wrong while searching prescriptions");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(res);
+        }
+    }
+
+    // ---------- Helpers ----------
+
+    // The word, indexed words starting with it, and indexed words one edit away
+    private Set<String> expand(String word) {
+        Set<String> terms = new LinkedHashSet<>();
+        terms.add(word);
+
+        // Anchored prefix on _id: a range scan of the _id index
+        Query prefix = new Query(Criteria.where("_id").regex("^" + word)).limit(maxExpansions);
+        prefix.fields().include("_id");
+        for (PrescriptionTerm t : mongoTemplate.find(prefix, PrescriptionTerm.class)) terms.add(t.getTerm());
+
+        // Typos: the stored words sharing a one-character deletion with the query word
+        if (word.length() > SearchTerms.MIN_LENGTH) {
+            List<String> keys = new ArrayList<>(SearchTerms.deletes(word));
+            keys.add(word);
+            Query typo = new Query(new Criteria().orOperator(
+                    Criteria.where("_id").in(keys),
+                    Criteria.where("deletes").in(keys))).limit(maxExpansions);
+            typo.fields().include("_id");
+            for (PrescriptionTerm t : mongoTemplate.find(typo, PrescriptionTerm.class)) {
+                if (SearchTerms.distance(word, t.getTerm()) <= 1) terms.add(t.getTerm());
+            }
+        }
+        return terms;
+    }
+
+    private Criteria filter(Long doctorId, LocalDate from, LocalDate to) {
+        List<Criteria> where = new ArrayList<>();
+        if (doctorId != null) where.add(Criteria.where("doctorId").is(doctorId));
+        if (from != null || to != null) {
+            Criteria range = Criteria.where("prescribedAt");
+            if (from != null) range = range.gte(from.atStartOfDay());
+            if (to != null) range = range.lt(to.plusDays(1).atStartOfDay());
+            where.add(range);
+        }
+        if (where.isEmpty()) return null;
+        return where.size() == 1 ? where.get(0) : new Criteria().andOperator(where.toArray(new Criteria[0]));
+    }
+
+    private record Position(Double score, String id) {
+
+        String encode() {
+            String raw = score + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Position decode(String token) {
+            if (token == null || token.isBlank()) return null;
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+                int sep = raw.indexOf('|');
+                String id = raw.substring(sep + 1);
+                if (!ObjectId.isValid(id)) throw new IllegalArgumentException();
+                return new Position(Double.valueOf(raw.substring(0, sep)), id);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+        }
+    }
+}
@@ -1,20 +1,27 @@
 package com.project.back_end.services;
 import com.project.back_end.models.Prescription;
+import com.project.back_end.repo.AppointmentRepository;
 import com.project.back_end.repo.PrescriptionRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.time.LocalDateTime;
+import java.util.*;
 
 @Service
 public class PrescriptionService {
     private final PrescriptionRepository prescriptionRepository;
+    private final AppointmentRepository appointmentRepository;
 
-    public PrescriptionService(PrescriptionRepository prescriptionRepository) {
+    @Value("${prescriptions.batch.max-ids:500}")
+    private int maxBatchIds;
+
+    public PrescriptionService(PrescriptionRepository prescriptionRepository,
+                               AppointmentRepository appointmentRepository) {
         this.prescriptionRepository = prescriptionRepository;
+        this.appointmentRepository = appointmentRepository;
     }
 
     // 1) savePrescription(Prescription prescription)
@@ -22,6 +29,17 @@ public class PrescriptionService {
         Map<String, String> res = new HashMap<>();
 
         try {
+            // Patient and doctor come from the appointment, not from the request body
+            List<Object[]> participants = prescription.getAppointmentId() == null ? List.of()
+                    : appointmentRepository.findParticipantsByIds(List.of(prescription.getAppointmentId()));
+            if (participants.isEmpty()) {
+                res.put("message", "Invalid appointment ID");
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res);
+            }
+            prescription.setDoctorId((Long) participants.get(0)[1]);
+            prescription.setPatientId((Long) participants.get(0)[2]);
+            prescription.setPrescribedAt(LocalDateTime.now());
+
             prescriptionRepository.save(prescription);
             res.put("message", "Prescription saved");
             return ResponseEntity.status(HttpStatus.CREATED).body(res);
@@ -45,4 +63,37 @@ public class PrescriptionService {
         }
     }
 
+    // 3) getPrescriptions(Collection<Long> appointmentIds): one $in query, grouped by appointment id.
+    // Every requested id is present in the result, with an empty list when it has no prescriptions.
+    public ResponseEntity<Map<String, Object>> getPrescriptions(Collection<Long> appointmentIds) {
+        Map<String, Object> res = new HashMap<>();
+
+        Set<Long> ids = new LinkedHashSet<>();
+        if (appointmentIds != null) {
+            for (Long id : appointmentIds) {
+                if (id != null) ids.add(id);
+            }
+        }
+        if (ids.isEmpty()) {
+            res.put("message", "appointmentIds is required");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res);
+        }
+        if (ids.size() > maxBatchIds) {
+            res.put("message", "At most " + maxBatchIds + " appointmentIds per request");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res);
+        }
+
+        try {
+            Map<Long, List<Prescription>> grouped = new LinkedHashMap<>();
+            for (Long id : ids) grouped.put(id, new ArrayList<>());
+            for (Prescription p : prescriptionRepository.findByAppointmentIdIn(ids)) {
+                grouped.get(p.getAppointmentId()).add(p);
+            }
+            res.put("prescriptions", grouped);
+            return ResponseEntity.ok(res);
+        } catch (Exception e) {
+            res.put("message", "Something went wrong while fetching prescriptions");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(res);
+        }
+    }
 }
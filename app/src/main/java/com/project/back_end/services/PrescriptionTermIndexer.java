@@ -0,0 +1,104 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Prescription;
+import com.project.back_end.models.PrescriptionTerm;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+// Keeps prescription_terms (the words used for prefix and typo expansion in search) up to date.
+// Reads prescriptions after the last processed _id in chunks and upserts their new words, so each
+// document is read once; the position is stored in search_state and survives restarts.
+// Documents younger than prescriptions.search.terms-settle-ms are left for the next run: bulk
+// writes assign ids before inserting, so a just-created id may still be followed by older ones.
+@Component
+public class PrescriptionTermIndexer {
+
+    private static final Logger log = LoggerFactory.getLogger(PrescriptionTermIndexer.class);
+
+    private static final String STATE_COLLECTION = "search_state";
+    private static final String STATE_ID = "prescription_terms";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${prescriptions.search.terms-chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${prescriptions.search.terms-settle-ms:300000}")
+    private long settleMillis;
+
+    public PrescriptionTermIndexer(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // 1) refresh(): add the words of prescriptions written since the last run
+    @Scheduled(initialDelayString = "${prescriptions.search.terms-refresh-ms:60000}",
+               fixedDelayString = "${prescriptions.search.terms-refresh-ms:60000}")
+    public synchronized void refresh() {
+        try {
+            ObjectId afterId = loadPosition();
+            ObjectId settled = new ObjectId(new Date(System.currentTimeMillis() - settleMillis));
+            long read = 0;
+            long added = 0;
+            while (true) {
+                Criteria range = Criteria.where("_id").lt(settled);
+                if (afterId != null) range = range.gt(afterId);
+                Query query = new Query(range).with(Sort.by("_id")).limit(chunkSize);
+                query.fields().include("_id", "medication", "doctorNotes");
+
+                List<Document> docs = mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Prescription.class));
+                if (docs.isEmpty()) break;
+
+                Set<String> words = new HashSet<>();
+                for (Document d : docs) {
+                    words.addAll(SearchTerms.words(d.getString("medication")));
+                    words.addAll(SearchTerms.words(d.getString("doctorNotes")));
+                }
+                added += upsert(words);
+                read += docs.size();
+
+                afterId = docs.get(docs.size() - 1).getObjectId("_id");
+                savePosition(afterId);
+                if (docs.size() < chunkSize) break;
+            }
+            if (read > 0) log.info("Prescription terms: {} documents read, {} new terms", read, added);
+        } catch (Exception e) {
+            // The stored position only moves after a chunk is written; the next run resumes there
+            log.warn("Prescription term refresh failed: {}", e.getMessage());
+        }
+    }
+
+    // ---------- Helpers ----------
+
+    // Unordered upserts that only write for words not seen before; returns how many were new
+    private int upsert(Set<String> words) {
+        if (words.isEmpty()) return 0;
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PrescriptionTerm.class);
+        for (String word : words) {
+            ops.upsert(Query.query(Criteria.where("_id").is(word)),
+                    new Update().setOnInsert("deletes", SearchTerms.deletes(word)));
+        }
+        return ops.execute().getUpserts().size();
+    }
+
+    private ObjectId loadPosition() {
+        Document state = mongoTemplate.findById(STATE_ID, Document.class, STATE_COLLECTION);
+        return state == null ? null : state.getObjectId("lastId");
+    }
+
+    private void savePosition(ObjectId lastId) {
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(STATE_ID)), Update.update("lastId", lastId), STATE_COLLECTION);
+    }
+}
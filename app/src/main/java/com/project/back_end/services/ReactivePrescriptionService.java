@@ -0,0 +1,169 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Prescription;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.ReactivePrescriptionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Same operations and responses as PrescriptionService, on the reactive Mongo driver.
+// Handlers return a Mono, so the Tomcat worker is released while Mongo answers and a slow Mongo
+// cannot take the threads that MySQL-only endpoints need. Backpressure:
+// - at most prescriptions.reactive.max-in-flight calls wait on Mongo; beyond that 503 right away
+// - every call gives up after prescriptions.reactive.timeout-ms with 503
+// - cursor reads pull prescriptions.reactive.prefetch documents at a time
+@Service
+public class ReactivePrescriptionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactivePrescriptionService.class);
+
+    private final ReactivePrescriptionRepository prescriptionRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    @Value("${prescriptions.batch.max-ids:500}")
+    private int maxBatchIds;
+
+    @Value("${prescriptions.reactive.max-in-flight:512}")
+    private int maxInFlight;
+
+    @Value("${prescriptions.reactive.timeout-ms:5000}")
+    private long timeoutMillis;
+
+    @Value("${prescriptions.reactive.prefetch:256}")
+    private int prefetch;
+
+    public ReactivePrescriptionService(ReactivePrescriptionRepository prescriptionRepository,
+                                       AppointmentRepository appointmentRepository) {
+        this.prescriptionRepository = prescriptionRepository;
+        this.appointmentRepository = appointmentRepository;
+    }
+
+    // 1) savePrescription(Prescription prescription)
+    public Mono<ResponseEntity<Map<String, String>>> savePrescription(Prescription prescription) {
+        if (prescription == null || prescription.getAppointmentId() == null) {
+            return Mono.just(message(HttpStatus.BAD_REQUEST, "Invalid appointment ID"));
+        }
+
+        // The appointment lookup is JDBC; it runs on boundedElastic, never on the request thread
+        Mono<List<Object[]>> participants = Mono
+                .fromCallable(() -> appointmentRepository.findParticipantsByIds(List.of(prescription.getAppointmentId())))
+                .subscribeOn(Schedulers.boundedElastic());
+
+        Mono<ResponseEntity<Map<String, String>>> save = participants.flatMap(rows -> {
+            if (rows.isEmpty()) return Mono.just(message(HttpStatus.BAD_REQUEST, "Invalid appointment ID"));
+
+            prescription.setDoctorId((Long) rows.get(0)[1]);
+            prescription.setPatientId((Long) rows.get(0)[2]);
+            prescription.setPrescribedAt(LocalDateTime.now());
+            return prescriptionRepository.save(prescription)
+                    .map(saved -> message(HttpStatus.CREATED, "Prescription saved"));
+        });
+        return guard(save, () -> message(HttpStatus.INTERNAL_SERVER_ERROR,
+                "Something went wrong while saving prescription"), this::unavailableMessage);
+    }
+
+    // 2) getPrescription(Long appointmentId)
+    public Mono<ResponseEntity<Map<String, Object>>> getPrescription(Long appointmentId) {
+        Mono<ResponseEntity<Map<String, Object>>> find = prescriptionRepository.findByAppointmentId(appointmentId)
+                .limitRate(prefetch)
+                .collectList()
+                .map(prescriptions -> {
+                    Map<String, Object> res = new HashMap<>();
+                    res.put("prescriptions", prescriptions);
+                    return ResponseEntity.ok(res);
+                });
+        return guard(find, () -> error(HttpStatus.INTERNAL_SERVER_ERROR,
+                "Something went wrong while fetching prescription"), this::unavailable);
+    }
+
+    // 3) getPrescriptions(Collection<Long> appointmentIds): one $in query, grouped by appointment id
+    public Mono<ResponseEntity<Map<String, Object>>> getPrescriptions(Collection<Long> appointmentIds) {
+        Set<Long> ids = new LinkedHashSet<>();
+        if (appointmentIds != null) {
+            for (Long id : appointmentIds) {
+                if (id != null) ids.add(id);
+            }
+        }
+        if (ids.isEmpty()) {
+            return Mono.just(error(HttpStatus.BAD_REQUEST, "appointmentIds is required"));
+        }
+        if (ids.size() > maxBatchIds) {
+            return Mono.just(error(HttpStatus.BAD_REQUEST, "At most " + maxBatchIds + " appointmentIds per request"));
+        }
+
+        Mono<ResponseEntity<Map<String, Object>>> find = prescriptionRepository.findByAppointmentIdIn(ids)
+                .limitRate(prefetch)
+                .collect(() -> {
+                    Map<Long, List<Prescription>> grouped = new LinkedHashMap<>();
+                    for (Long id : ids) grouped.put(id, new ArrayList<>());
+                    return grouped;
+                }, (grouped, p) -> grouped.get(p.getAppointmentId()).add(p))
+                .map(grouped -> {
+                    Map<String, Object> res = new HashMap<>();
+                    res.put("prescriptions", grouped);
+                    return ResponseEntity.ok(res);
+                });
+        return guard(find, () -> error(HttpStatus.INTERNAL_SERVER_ERROR,
+                "Something went wrong while fetching prescriptions"), this::unavailable);
+    }
+
+    // ---------- Helpers ----------
+
+    // In-flight cap, timeout and error mapping around one Mongo call
+    private <T> Mono<ResponseEntity<T>> guard(Mono<ResponseEntity<T>> call,
+                                              Supplier<ResponseEntity<T>> failed,
+                                              Function<String, ResponseEntity<T>> unavailable) {
+        return Mono.defer(() -> {
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                return Mono.just(unavailable.apply("Prescription store is busy, retry later"));
+            }
+            return call
+                    .timeout(Duration.ofMillis(timeoutMillis))
+                    .onErrorResume(TimeoutException.class, e -> {
+                        log.warn("Prescription call timed out after {} ms", timeoutMillis);
+                        return Mono.just(unavailable.apply("Prescription store did not respond in time"));
+                    })
+                    .onErrorResume(e -> {
+                        log.warn("Prescription call failed: {}", e.getMessage());
+                        return Mono.just(failed.get());
+                    })
+                    .doFinally(signal -> inFlight.decrementAndGet());
+        });
+    }
+
+    private ResponseEntity<Map<String, Object>> unavailable(String message) {
+        return error(HttpStatus.SERVICE_UNAVAILABLE, message);
+    }
+
+    private ResponseEntity<Map<String, String>> unavailableMessage(String message) {
+        return message(HttpStatus.SERVICE_UNAVAILABLE, message);
+    }
+
+    private ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        Map<String, Object> res = new HashMap<>();
+        res.put("message", message);
+        return ResponseEntity.status(status).body(res);
+    }
+
+    private ResponseEntity<Map<String, String>> message(HttpStatus status, String message) {
+        Map<String, String> res = new HashMap<>();
+        res.put("message", message);
+        return ResponseEntity.status(status).body(res);
+    }
+}
@@ -0,0 +1,380 @@
+package com.project.back_end.services;
+
+import com.project.back_end.DTO.ScheduleExceptionDTO;
+import com.project.back_end.DTO.WeeklyScheduleDTO;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.DoctorSchedule;
+import com.project.back_end.models.ScheduleException;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.DoctorScheduleRepository;
+import com.project.back_end.repo.ScheduleExceptionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Doctors' typed schedules: a weekly template (one bitmask per weekday) plus date-specific exceptions.
+// Each doctor's schedule is compiled once into memory; per-date slot lists are memoized,
+// so availability and AM/PM checks are mask tests instead of string parsing.
+// Every slot lasts one appointment (Appointment.DURATION_MINUTES). slotMinutes is the spacing of
+// slot starts: 60 for admin-set templates, 30 only for legacy lists with half-past starts.
+// Doctors being deleted are hidden: no slots are offered and nothing is compiled or saved for them
+// until unhidden, while their stored schedule stays in place until the deletion commits.
+@Service
+public class ScheduleService {
+
+    private static final Logger log = LoggerFactory.getLogger(ScheduleService.class);
+
+    public static final int AM = 1;
+    public static final int PM = 2;
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int DEFAULT_SLOT_MINUTES = Appointment.DURATION_MINUTES;
+    // Finer spacing kept for legacy "09:30-10:30" style entries
+    private static final int LEGACY_SLOT_MINUTES = 30;
+    private static final int MAX_MEMOIZED_DATES = 400;
+
+    private final DoctorScheduleRepository scheduleRepository;
+    private final ScheduleExceptionRepository exceptionRepository;
+    private final DoctorRepository doctorRepository;
+
+    private final Map<Long, CompiledSchedule> compiled = new ConcurrentHashMap<>();
+    private final Set<Long> hidden = ConcurrentHashMap.newKeySet();
+
+    public ScheduleService(DoctorScheduleRepository scheduleRepository,
+                           ScheduleExceptionRepository exceptionRepository,
+                           DoctorRepository doctorRepository) {
+        this.scheduleRepository = scheduleRepository;
+        this.exceptionRepository = exceptionRepository;
+        this.doctorRepository = doctorRepository;
+    }
+
+    // 1) warmUp(): backfill templates for doctors that only have availableTimes, then compile all.
+    // Repeated on the directory refresh delay to pick up schedule changes made by other instances.
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    @Scheduled(initialDelayString = "${doctor.directory.refresh-ms:300000}",
+               fixedDelayString = "${doctor.directory.refresh-ms:300000}")
+    public void warmUp() {
+        try {
+            Map<Long, DoctorSchedule> schedules = new HashMap<>();
+            for (DoctorSchedule s : scheduleRepository.findAll()) {
+                schedules.put(s.getDoctorId(), s);
+            }
+
+            for (Doctor d : doctorRepository.findAllWithAvailableTimes()) {
+                if (!schedules.containsKey(d.getId()) && !hidden.contains(d.getId())) {
+                    schedules.put(d.getId(), scheduleRepository.save(fromAvailableTimes(d)));
+                }
+            }
+
+            Map<Long, List<ScheduleException>> exceptions = new HashMap<>();
+            for (ScheduleException e : exceptionRepository.findByDateGreaterThanEqual(LocalDate.now().minusDays(1))) {
+                exceptions.computeIfAbsent(e.getDoctorId(), k -> new ArrayList<>()).add(e);
+            }
+
+            for (DoctorSchedule s : schedules.values()) {
+                if (hidden.contains(s.getDoctorId())) continue;
+                compiled.put(s.getDoctorId(), new CompiledSchedule(s, exceptions.getOrDefault(s.getDoctorId(), List.of())));
+            }
+        } catch (Exception e) {
+            // Schedules are compiled lazily per doctor instead
+            log.warn("Schedule warm-up failed: {}", e.getMessage());
+        }
+    }
+
+    // 2) syncFromAvailableTimes(Doctor, previousTimes): legacy "availableTimes" edits become the weekly template.
+    // previousTimes is the list before the edit (null for a new doctor). An existing template, possibly set
+    // through saveWeeklySchedule, is only replaced when the legacy list itself changed.
+    public void syncFromAvailableTimes(Doctor doctor, List<String> previousTimes) {
+        if (doctor == null || doctor.getId() == null || doctor.getAvailableTimes() == null) return;
+        if (hidden.contains(doctor.getId())) return;
+
+        boolean unchanged = previousTimes != null
+                && new HashSet<>(previousTimes).equals(new HashSet<>(doctor.getAvailableTimes()));
+        if (unchanged && scheduleRepository.existsById(doctor.getId())) return;
+
+        DoctorSchedule schedule = scheduleRepository.save(fromAvailableTimes(doctor));
+        compiled.put(doctor.getId(), new CompiledSchedule(schedule, loadExceptions(doctor.getId())));
+    }
+
+    // 3) saveWeeklySchedule: 1 saved, -1 doctor not found, 0 invalid input.
+    // Slots are as long as an appointment, so any other slotMinutes is rejected.
+    public int saveWeeklySchedule(Long doctorId, WeeklyScheduleDTO dto) {
+        if (doctorId == null || dto == null || dto.getDays() == null) return 0;
+        if (hidden.contains(doctorId) || !doctorRepository.existsById(doctorId)) return -1;
+
+        int slotMinutes = dto.getSlotMinutes() != null ? dto.getSlotMinutes() : DEFAULT_SLOT_MINUTES;
+        if (slotMinutes != DEFAULT_SLOT_MINUTES) return 0;
+
+        DoctorSchedule schedule = new DoctorSchedule(doctorId, slotMinutes);
+        for (Map.Entry<DayOfWeek, List<String>> day : dto.getDays().entrySet()) {
+            Long mask = toMask(day.getValue(), slotMinutes);
+            if (mask == null) return 0;
+            schedule.setMask(day.getKey(), mask);
+        }
+
+        updateDayParts(schedule);
+        scheduleRepository.save(schedule);
+        compiled.put(doctorId, new CompiledSchedule(schedule, loadExceptions(doctorId)));
+        return 1;
+    }
+
+    // 4) saveException: 1 saved, -1 doctor has no schedule, 0 invalid input
+    public int saveException(Long doctorId, ScheduleExceptionDTO dto) {
+        if (doctorId == null || dto == null || dto.getDate() == null) return 0;
+        if (hidden.contains(doctorId)) return -1;
+
+        DoctorSchedule schedule = scheduleRepository.findById(doctorId).orElse(null);
+        if (schedule == null) return -1;
+
+        Long mask = toMask(dto.getTimes() == null ? List.of() : dto.getTimes(), schedule.getSlotMinutes());
+        if (mask == null) return 0;
+
+        ScheduleException exception = exceptionRepository.findByDoctorIdAndDate(doctorId, dto.getDate());
+        if (exception == null) {
+            exception = new ScheduleException();
+            exception.setDoctorId(doctorId);
+            exception.setDate(dto.getDate());
+        }
+        exception.setMask(mask);
+        exception.setReason(dto.getReason());
+        exceptionRepository.save(exception);
+
+        compiled.put(doctorId, new CompiledSchedule(schedule, loadExceptions(doctorId)));
+        return 1;
+    }
+
+    // 5) getSlots: slot start times offered on a date (memoized per date)
+    public List<LocalTime> getSlots(Long doctorId, LocalDate date) {
+        if (doctorId == null || date == null) return List.of();
+        return schedule(doctorId).slots(date);
+    }
+
+    // Weekly slots as legacy "HH:mm-HH:mm" strings, in start order (union of all weekdays)
+    public List<String> weeklyTimes(Long doctorId) {
+        CompiledSchedule s = schedule(doctorId);
+        long week = 0L;
+        for (long mask : s.weekly) {
+            week |= mask;
+        }
+
+        List<String> times = new ArrayList<>();
+        while (week != 0) {
+            int bit = Long.numberOfTrailingZeros(week);
+            LocalTime start = LocalTime.MIDNIGHT.plusMinutes((long) bit * s.slotMinutes);
+            times.add(start + "-" + start.plusMinutes(Appointment.DURATION_MINUTES));
+            week &= week - 1;
+        }
+        return times;
+    }
+
+    // 6) offers: is there a slot starting exactly at this time?
+    public boolean offers(Long doctorId, LocalDateTime time) {
+        if (doctorId == null || time == null) return false;
+        return schedule(doctorId).offers(time);
+    }
+
+    // 7) dayPartMask: AM / PM bits of the weekly template
+    public int dayPartMask(Long doctorId) {
+        return schedule(doctorId).dayParts;
+    }
+
+    // Offers no slots for the doctor and keeps it from being compiled or backfilled until unhide();
+    // the stored template and exceptions are left alone
+    public void hide(Long doctorId) {
+        hidden.add(doctorId);
+        compiled.remove(doctorId);
+    }
+
+    // Deletes the stored template and exceptions; runs in the caller's transaction
+    public void deleteSchedule(Long doctorId) {
+        exceptionRepository.deleteByDoctorId(doctorId);
+        if (scheduleRepository.existsById(doctorId)) scheduleRepository.deleteById(doctorId);
+        compiled.remove(doctorId);
+    }
+
+    public void unhide(Long doctorId) {
+        hidden.remove(doctorId);
+    }
+
+    // Start time of a legacy slot string: "09:00-10:00", "09:00 AM", "9:00 pm" or "09:00"
+    public static LocalTime parseSlotStart(String slot) {
+        if (slot == null) return null;
+
+        String s = slot.trim().toUpperCase();
+        int dash = s.indexOf('-');
+        if (dash > 0) s = s.substring(0, dash).trim();
+
+        boolean am = s.endsWith("AM");
+        boolean pm = s.endsWith("PM");
+        if (am || pm) s = s.substring(0, s.length() - 2).trim();
+
+        try {
+            String[] parts = s.split(":");
+            int h = Integer.parseInt(parts[0].trim());
+            int m = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 0;
+            if (am && h == 12) h = 0;
+            if (pm && h < 12) h += 12;
+            return LocalTime.of(h, m);
+        } catch (NumberFormatException | DateTimeException e) {
+            return null;
+        }
+    }
+
+    // ---------- Helpers ----------
+
+    // Misses are not cached: any id can be asked for, and a schedule saved later is compiled on save
+    private CompiledSchedule schedule(Long doctorId) {
+        if (hidden.contains(doctorId)) return CompiledSchedule.EMPTY;
+        CompiledSchedule c = compiled.get(doctorId);
+        if (c == null) {
+            DoctorSchedule s = scheduleRepository.findById(doctorId).orElse(null);
+            if (s == null) return CompiledSchedule.EMPTY;
+
+            c = new CompiledSchedule(s, loadExceptions(doctorId));
+            compiled.put(doctorId, c);
+        }
+        return c;
+    }
+
+    private List<ScheduleException> loadExceptions(Long doctorId) {
+        return exceptionRepository.findByDoctorIdAndDateGreaterThanEqual(doctorId, LocalDate.now().minusDays(1));
+    }
+
+    // Legacy strings carry no weekday, so the same slots apply every day of the week.
+    // Only the start of each entry is used: every slot lasts one appointment.
+    // Slots off the half-hour grid (unparseable, or e.g. "09:15" starts) are dropped with a warning.
+    private DoctorSchedule fromAvailableTimes(Doctor doctor) {
+        List<Integer> starts = new ArrayList<>();
+        List<String> dropped = new ArrayList<>();
+        for (String slot : doctor.getAvailableTimes()) {
+            LocalTime start = parseSlotStart(slot);
+            if (start != null) starts.add(start.getHour() * 60 + start.getMinute());
+            else dropped.add(slot);
+        }
+        int slotMinutes = starts.stream().allMatch(m -> m % DEFAULT_SLOT_MINUTES == 0)
+                ? DEFAULT_SLOT_MINUTES
+                : LEGACY_SLOT_MINUTES;
+
+        long mask = 0L;
+        for (String slot : doctor.getAvailableTimes()) {
+            LocalTime start = parseSlotStart(slot);
+            if (start == null) continue;
+
+            int minute = start.getHour() * 60 + start.getMinute();
+            if (minute % slotMinutes == 0) mask |= 1L << (minute / slotMinutes);
+            else dropped.add(slot);
+        }
+        if (!dropped.isEmpty()) {
+            log.warn("Doctor {}: available times {} do not fit a {}-minute slot grid and were dropped",
+                    doctor.getId(), dropped, slotMinutes);
+        }
+
+        DoctorSchedule schedule = new DoctorSchedule(doctor.getId(), slotMinutes);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            schedule.setMask(day, mask);
+        }
+        updateDayParts(schedule);
+        return schedule;
+    }
+
+    // "HH:mm" start times -> mask; null if a time is unparseable or off the slot grid
+    private Long toMask(List<String> times, int slotMinutes) {
+        long mask = 0L;
+        for (String t : times) {
+            LocalTime start = parseSlotStart(t);
+            if (start == null) return null;
+
+            int minute = start.getHour() * 60 + start.getMinute();
+            if (minute % slotMinutes != 0) return null;
+            mask |= 1L << (minute / slotMinutes);
+        }
+        return mask;
+    }
+
+    private static void updateDayParts(DoctorSchedule schedule) {
+        long week = 0L;
+        for (DayOfWeek day : DayOfWeek.values()) {
+            week |= schedule.getMask(day);
+        }
+        long am = morningMask(schedule.getSlotMinutes());
+        schedule.setMorning((week & am) != 0);
+        schedule.setAfternoon((week & ~am) != 0);
+    }
+
+    // Bits of the slots that start before noon
+    private static long morningMask(int slotMinutes) {
+        int count = (MINUTES_PER_DAY / 2 + slotMinutes - 1) / slotMinutes;
+        return (1L << count) - 1;
+    }
+
+    private static final class CompiledSchedule {
+        static final CompiledSchedule EMPTY = new CompiledSchedule();
+
+        private final int slotMinutes;
+        private final long[] weekly = new long[7];
+        private final Map<LocalDate, Long> exceptions = new HashMap<>();
+        private final Map<LocalDate, List<LocalTime>> memo = new ConcurrentHashMap<>();
+        private final int dayParts;
+
+        private CompiledSchedule() {
+            this.slotMinutes = DEFAULT_SLOT_MINUTES;
+            this.dayParts = 0;
+        }
+
+        CompiledSchedule(DoctorSchedule s, List<ScheduleException> overrides) {
+            this.slotMinutes = s.getSlotMinutes();
+            for (DayOfWeek day : DayOfWeek.values()) {
+                weekly[day.getValue() - 1] = s.getMask(day);
+            }
+            for (ScheduleException e : overrides) {
+                exceptions.put(e.getDate(), e.getMask());
+            }
+            this.dayParts = (s.isMorning() ? AM : 0) | (s.isAfternoon() ? PM : 0);
+        }
+
+        long mask(LocalDate date) {
+            Long override = exceptions.get(date);
+            return override != null ? override : weekly[date.getDayOfWeek().getValue() - 1];
+        }
+
+        boolean offers(LocalDateTime time) {
+            if (time.getSecond() != 0 || time.getNano() != 0) return false;
+
+            int minute = time.getHour() * 60 + time.getMinute();
+            if (minute % slotMinutes != 0) return false;
+            return (mask(time.toLocalDate()) & (1L << (minute / slotMinutes))) != 0;
+        }
+
+        List<LocalTime> slots(LocalDate date) {
+            List<LocalTime> cached = memo.get(date);
+            if (cached != null) return cached;
+
+            List<LocalTime> result = new ArrayList<>();
+            long mask = mask(date);
+            while (mask != 0) {
+                int bit = Long.numberOfTrailingZeros(mask);
+                result.add(LocalTime.MIDNIGHT.plusMinutes((long) bit * slotMinutes));
+                mask &= mask - 1;
+            }
+
+            if (memo.size() >= MAX_MEMOIZED_DATES) memo.clear();
+            List<LocalTime> slots = List.copyOf(result);
+            memo.put(date, slots);
+            return slots;
+        }
+    }
+}
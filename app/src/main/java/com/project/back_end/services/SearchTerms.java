@@ -0,0 +1,66 @@
+package com.project.back_end.services;
+
+import java.util.*;
+
+// Word handling shared by the prescription term indexer and the search: the same split as the
+// Mongo text index (runs of letters and digits, lowercased) and one-edit neighbourhoods.
+final class SearchTerms {
+
+    static final int MIN_LENGTH = 3;
+    static final int MAX_LENGTH = 40;
+
+    private SearchTerms() {
+    }
+
+    // Distinct words of the text, in order; too short, too long and all-digit words are dropped
+    static Set<String> words(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        if (text == null) return words;
+
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                current.append(Character.toLowerCase(c));
+            } else if (current.length() > 0) {
+                String word = current.toString();
+                if (word.length() >= MIN_LENGTH && word.length() <= MAX_LENGTH && !isNumber(word)) words.add(word);
+                current.setLength(0);
+            }
+        }
+        return words;
+    }
+
+    // The word with each single character removed
+    static List<String> deletes(String word) {
+        Set<String> deletes = new LinkedHashSet<>();
+        for (int i = 0; i < word.length(); i++) {
+            deletes.add(word.substring(0, i) + word.substring(i + 1));
+        }
+        return new ArrayList<>(deletes);
+    }
+
+    // Optimal string alignment distance: insertions, deletions, substitutions and adjacent swaps
+    static int distance(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) d[i][0] = i;
+        for (int j = 0; j <= b.length(); j++) d[0][j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    private static boolean isNumber(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (!Character.isDigit(word.charAt(i))) return false;
+        }
+        return true;
+    }
+}
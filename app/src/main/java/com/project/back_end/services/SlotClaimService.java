@@ -0,0 +1,95 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.SlotClaim;
+import com.project.back_end.repo.SlotClaimRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Database-enforced booking: each appointment inserts one SlotClaim per quarter-hour cell it covers.
+// The (doctor_id, slot_start) primary key makes the database reject an overlapping booking
+// no matter which instance or thread wrote the first one; only index rows are locked.
+@Service
+public class SlotClaimService {
+
+    private static final Logger log = LoggerFactory.getLogger(SlotClaimService.class);
+
+    static final int MINUTES_PER_CELL = 15;
+
+    private final SlotClaimRepository slotClaimRepository;
+
+    public SlotClaimService(SlotClaimRepository slotClaimRepository) {
+        this.slotClaimRepository = slotClaimRepository;
+    }
+
+    // 1) claim(): call inside the booking transaction, after the appointment has its id.
+    // Throws DataIntegrityViolationException when another appointment holds one of the cells.
+    public void claim(Appointment appointment) {
+        slotClaimRepository.saveAllAndFlush(
+                claimsFor(appointment.getId(), appointment.getDoctor().getId(), appointment.getAppointmentTime()));
+    }
+
+    // Claims for many appointments in one batched flush (bulk import)
+    public void claimAll(Collection<Appointment> appointments) {
+        List<SlotClaim> claims = new ArrayList<>();
+        for (Appointment a : appointments) {
+            claims.addAll(claimsFor(a.getId(), a.getDoctor().getId(), a.getAppointmentTime()));
+        }
+        if (!claims.isEmpty()) slotClaimRepository.saveAllAndFlush(claims);
+    }
+
+    // 2) release(): drop the claims of a cancelled / rescheduled appointment
+    public void release(Long appointmentId) {
+        slotClaimRepository.deleteByAppointmentId(appointmentId);
+    }
+
+    public void releaseDoctor(Long doctorId) {
+        slotClaimRepository.deleteByDoctorId(doctorId);
+    }
+
+    // 3) Claims for upcoming appointments booked before claims existed
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int claimed = 0;
+        try {
+            for (Object[] row : slotClaimRepository.findUnclaimedAppointmentsFrom(LocalDateTime.now())) {
+                try {
+                    slotClaimRepository.saveAllAndFlush(claimsFor((Long) row[0], (Long) row[1], (LocalDateTime) row[2]));
+                    claimed++;
+                } catch (DataIntegrityViolationException e) {
+                    // An existing double booking: the first appointment keeps the cells
+                    log.warn("Appointment {} overlaps an earlier booking; no slot claims written", row[0]);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Slot claim backfill failed: {}", e.getMessage());
+        }
+        if (claimed > 0) log.info("Backfilled slot claims for {} appointments", claimed);
+    }
+
+    // ---------- Helpers ----------
+
+    // Every quarter-hour cell that [start, start + DURATION_MINUTES) touches; two appointments overlap
+    // only if they share a cell. Cells are in ascending order so concurrent inserts lock in the same order.
+    private List<SlotClaim> claimsFor(Long appointmentId, Long doctorId, LocalDateTime start) {
+        LocalDateTime end = start.plusMinutes(Appointment.DURATION_MINUTES);
+        LocalDateTime cell = start.truncatedTo(ChronoUnit.HOURS)
+                .plusMinutes((start.getMinute() / MINUTES_PER_CELL) * (long) MINUTES_PER_CELL);
+
+        List<SlotClaim> claims = new ArrayList<>();
+        for (; cell.isBefore(end); cell = cell.plusMinutes(MINUTES_PER_CELL)) {
+            claims.add(new SlotClaim(doctorId, cell, appointmentId));
+        }
+        return claims;
+    }
+}
@@ -1,63 +1,102 @@
 package com.project.back_end.services;
 
+import com.project.back_end.models.TokenRevocation;
 import com.project.back_end.repo.AdminRepository;
 import com.project.back_end.repo.DoctorRepository;
 import com.project.back_end.repo.PatientRepository;
+import com.project.back_end.repo.TokenRevocationRepository;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.security.Keys;
 
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class TokenService {
 
+    public static final String ROLE_CLAIM = "role";
+    public static final String ID_CLAIM = "uid";
+
+    private static final long TOKEN_TTL_MILLIS = 7L * 24 * 60 * 60 * 1000; // 7 days
+
     private final AdminRepository adminRepository;
     private final DoctorRepository doctorRepository;
     private final PatientRepository patientRepository;
+    private final TokenRevocationRepository revocationRepository;
+    private final VerifiedTokenCache tokenCache;
 
     @Value("${jwt.secret}")
     private String jwtSecret;
 
+    // How long a role claim is trusted before the account is re-checked against the database
+    @Value("${jwt.revalidate-interval:15m}")
+    private Duration revalidateInterval;
+
+    // subject -> revocation time seen by this instance; the token_revocation table is authoritative
+    // and is read whenever a token is verified for the first time or revalidated
+    private final Map<String, Long> revokedSubjects = new ConcurrentHashMap<>();
+
+    // Built once; both are immutable and thread-safe
+    private SecretKey signingKey;
+    private JwtParser parser;
+
     public TokenService(AdminRepository adminRepository,
                         DoctorRepository doctorRepository,
-                        PatientRepository patientRepository) {
+                        PatientRepository patientRepository,
+                        TokenRevocationRepository revocationRepository,
+                        VerifiedTokenCache tokenCache) {
         this.adminRepository = adminRepository;
         this.doctorRepository = doctorRepository;
         this.patientRepository = patientRepository;
+        this.revocationRepository = revocationRepository;
+        this.tokenCache = tokenCache;
+    }
+
+    @PostConstruct
+    void init() {
+        // HS256 needs a sufficiently long secret (>= 32 chars recommended)
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
     }
 
     // Generate JWT for username/email (Admin uses username, Doctor/Patient uses email)
     public String generateToken(String identifier) {
+        return generateToken(identifier, null, null);
+    }
+
+    // Generate JWT carrying signed role and entity-id claims so validation needs no lookup
+    public String generateToken(String identifier, String role, Long id) {
         Date now = new Date();
-        Date expiry = new Date(now.getTime() + (7L * 24 * 60 * 60 * 1000)); // 7 days
+        Date expiry = new Date(now.getTime() + TOKEN_TTL_MILLIS);
 
-        return Jwts.builder()
+        var builder = Jwts.builder()
                 .subject(identifier)
                 .issuedAt(now)
-                .expiration(expiry)
+                .expiration(expiry);
+        if (role != null) builder.claim(ROLE_CLAIM, role.toLowerCase());
+        if (id != null) builder.claim(ID_CLAIM, id);
+
+        return builder
                 .signWith(getSigningKey(), Jwts.SIG.HS256)
                 .compact();
     }
 
     // Extract subject (identifier) from token
     public String extractIdentifier(String token) {
-        try {
-            return Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload()
-                    .getSubject();
-        } catch (JwtException | IllegalArgumentException e) {
-            return null;
-        }
+        VerifiedTokenCache.Entry entry = verify(token);
+        return entry != null ? entry.getSubject() : null;
     }
 
     // Optional compatibility helper if other services call extractEmail()
@@ -68,22 +107,123 @@ public class TokenService {
     // Validate token for a role (admin/doctor/patient)
     public boolean validateToken(String token, String user) {
         try {
-            String identifier = extractIdentifier(token);
-            if (identifier == null || user == null) return false;
-
-            return switch (user.toLowerCase()) {
-                case "admin" -> adminRepository.findByUsername(identifier) != null;
-                case "doctor" -> doctorRepository.findByEmail(identifier) != null;
-                case "patient" -> patientRepository.findByEmail(identifier) != null;
-                default -> false;
-            };
+            if (user == null) return false;
+
+            VerifiedTokenCache.Entry entry = verify(token);
+            if (entry == null) return false;
+
+            String role = user.toLowerCase();
+            long now = System.currentTimeMillis();
+            boolean fresh = now - entry.getVerifiedAtMillis() < revalidateInterval.toMillis();
+
+            if (entry.getRole() != null) {
+                // Signed role claim: pure in-memory check until the revalidation interval elapses
+                if (!entry.getRole().equals(role)) return false;
+                if (fresh) return true;
+            } else if (entry.hasRole(role) && fresh) {
+                return true;
+            }
+
+            boolean exists = !isRevokedInStore(entry) && accountExists(role, entry.getSubject());
+            if (exists) {
+                entry.addRole(role);
+                entry.markVerified(now);
+            } else {
+                tokenCache.invalidate(token);
+            }
+            return exists;
         } catch (Exception e) {
             return false;
         }
     }
 
+    // Verified subject and claims for a token (signature, expiry and revocation checked; no role check)
+    public VerifiedTokenCache.Entry resolve(String token) {
+        return verify(token);
+    }
+
+    // Drop a token from the verified cache (e.g. after the account behind it is removed)
+    public void invalidate(String token) {
+        tokenCache.invalidate(token);
+    }
+
+    // Revocation hook: reject every token issued to this subject up to now, on every instance
+    public void revokeSubject(String subject) {
+        if (subject == null) return;
+
+        long now = System.currentTimeMillis();
+        revocationRepository.save(new TokenRevocation(subject, now));
+        revokedSubjects.put(subject, now);
+        // Older revocations can no longer match a live token
+        revocationRepository.deleteOlderThan(now - TOKEN_TTL_MILLIS);
+        revokedSubjects.values().removeIf(revokedAt -> now - revokedAt > TOKEN_TTL_MILLIS);
+    }
+
+    public long getCacheHits() {
+        return tokenCache.getHits();
+    }
+
+    public long getCacheMisses() {
+        return tokenCache.getMisses();
+    }
+
+    // ---------- Helpers ----------
+
+    // Returns the cached verification result, or verifies the signature once and caches it until "exp"
+    private VerifiedTokenCache.Entry verify(String token) {
+        if (token == null || token.isBlank()) return null;
+
+        VerifiedTokenCache.Entry entry = tokenCache.get(token);
+        if (entry == null) {
+            try {
+                Claims claims = parser.parseSignedClaims(token).getPayload();
+                if (claims.getSubject() == null || claims.getExpiration() == null) return null;
+
+                Object id = claims.get(ID_CLAIM);
+                long issuedAt = claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : 0L;
+                entry = tokenCache.put(token,
+                        claims.getSubject(),
+                        claims.get(ROLE_CLAIM, String.class),
+                        id instanceof Number n ? n.longValue() : null,
+                        issuedAt,
+                        claims.getExpiration().getTime());
+            } catch (JwtException | IllegalArgumentException e) {
+                return null;
+            }
+            // First sight of this token here: pick up revocations made on other instances
+            if (entry != null && isRevokedInStore(entry)) {
+                tokenCache.invalidate(token);
+                return null;
+            }
+        }
+
+        Long revokedAt = revokedSubjects.get(entry.getSubject());
+        if (revokedAt != null && entry.getIssuedAtMillis() <= revokedAt) {
+            tokenCache.invalidate(token);
+            return null;
+        }
+        return entry;
+    }
+
+    // Reads the shared revocation for the subject and remembers it locally
+    private boolean isRevokedInStore(VerifiedTokenCache.Entry entry) {
+        TokenRevocation revocation = revocationRepository.findById(entry.getSubject()).orElse(null);
+        if (revocation == null) return false;
+
+        revokedSubjects.merge(entry.getSubject(), revocation.getRevokedAtMillis(), Math::max);
+        return entry.getIssuedAtMillis() <= revocation.getRevokedAtMillis();
+    }
+
+    private boolean accountExists(String role, String identifier) {
+        return switch (role) {
+            case "admin" -> adminRepository.findByUsername(identifier) != null;
+            case "doctor" -> doctorRepository.findByEmail(identifier) != null;
+            case "patient" -> patientRepository.findByEmail(identifier) != null;
+            default -> false;
+        };
+    }
+
     private SecretKey getSigningKey() {
-        // HS256 needs a sufficiently long secret (>= 32 chars recommended)
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        return signingKey;
     }
 }
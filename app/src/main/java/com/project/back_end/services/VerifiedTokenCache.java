@@ -0,0 +1,159 @@
+package com.project.back_end.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Bounded cache of tokens that already passed signature verification.
+// Keyed by a SHA-256 digest of the token (raw JWTs are never kept as keys),
+// entries are dropped once the token's own "exp" has passed. When full, the
+// least recently used entry is dropped in O(1) by the access-ordered map.
+@Component
+public class VerifiedTokenCache {
+
+    private final Map<String, Entry> entries = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > maxEntries;
+                }
+            });
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @Value("${jwt.cache.max-entries:10000}")
+    private int maxEntries;
+
+    public Entry get(String token) {
+        if (token == null) return null;
+
+        String key = digest(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        if (entry.isExpired(System.currentTimeMillis())) {
+            entries.remove(key, entry);
+            misses.incrementAndGet();
+            return null;
+        }
+
+        hits.incrementAndGet();
+        return entry;
+    }
+
+    public Entry put(String token, String subject, String role, Long principalId,
+                     long issuedAtMillis, long expiresAtMillis) {
+        if (token == null || subject == null) return null;
+
+        Entry entry = new Entry(subject, role, principalId, issuedAtMillis, expiresAtMillis);
+        entries.put(digest(token), entry);
+        return entry;
+    }
+
+    public void invalidate(String token) {
+        if (token == null) return;
+        entries.remove(digest(token));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // ---------- Helpers ----------
+
+    private String digest(String token) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Verified subject and signed claims, plus the roles it has already been resolved against
+    public static final class Entry {
+        private final String subject;
+        private final String role;
+        private final Long principalId;
+        private final long issuedAtMillis;
+        private final long expiresAtMillis;
+        private final Set<String> roles = ConcurrentHashMap.newKeySet();
+        private volatile long verifiedAtMillis;
+
+        Entry(String subject, String role, Long principalId, long issuedAtMillis, long expiresAtMillis) {
+            this.subject = subject;
+            this.role = role;
+            this.principalId = principalId;
+            this.issuedAtMillis = issuedAtMillis;
+            this.expiresAtMillis = expiresAtMillis;
+            // A token carrying a role claim was issued right after a credential check
+            this.verifiedAtMillis = role != null ? issuedAtMillis : 0L;
+        }
+
+        public String getSubject() {
+            return subject;
+        }
+
+        // Signed "role" claim, or null for tokens issued before role claims existed
+        public String getRole() {
+            return role;
+        }
+
+        public Long getPrincipalId() {
+            return principalId;
+        }
+
+        public long getIssuedAtMillis() {
+            return issuedAtMillis;
+        }
+
+        public long getVerifiedAtMillis() {
+            return verifiedAtMillis;
+        }
+
+        public void markVerified(long now) {
+            this.verifiedAtMillis = now;
+        }
+
+        public long getExpiresAtMillis() {
+            return expiresAtMillis;
+        }
+
+        public boolean hasRole(String role) {
+            return roles.contains(role);
+        }
+
+        public void addRole(String role) {
+            roles.add(role);
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+-- Schema as previously generated by ddl-auto: update from the original entities.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate),
+-- so this script only runs against an empty schema; V2 onwards run everywhere.
+
+CREATE TABLE admin (
+    id       BIGINT       NOT NULL AUTO_INCREMENT,
+    username VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE doctor (
+    id        BIGINT       NOT NULL AUTO_INCREMENT,
+    name      VARCHAR(100) NOT NULL,
+    specialty VARCHAR(50)  NOT NULL,
+    email     VARCHAR(255) NOT NULL,
+    password  VARCHAR(255) NOT NULL,
+    phone     VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE doctor_available_times (
+    doctor_id       BIGINT NOT NULL,
+    available_times VARCHAR(255),
+    CONSTRAINT fk_doctor_available_times_doctor FOREIGN KEY (doctor_id) REFERENCES doctor (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE patient (
+    id       BIGINT       NOT NULL AUTO_INCREMENT,
+    name     VARCHAR(100) NOT NULL,
+    email    VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    phone    VARCHAR(255) NOT NULL,
+    address  VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE appointment (
+    id               BIGINT      NOT NULL AUTO_INCREMENT,
+    doctor_id        BIGINT      NOT NULL,
+    patient_id       BIGINT      NOT NULL,
+    appointment_time DATETIME(6) NOT NULL,
+    status           INTEGER     NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_appointment_doctor FOREIGN KEY (doctor_id) REFERENCES doctor (id),
+    CONSTRAINT fk_appointment_patient FOREIGN KEY (patient_id) REFERENCES patient (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,10 @@
+-- Indexes for the lookups on the login, availability and booking paths.
+
+-- Doctor day view, booked-slot calendar, overlap check and deletion chunks: doctor_id = ? AND appointment_time range
+CREATE INDEX idx_appointment_doctor_time ON appointment (doctor_id, appointment_time);
+
+-- Logins and signup duplicate checks (findByEmail, findByEmailOrPhone, findByUsername)
+ALTER TABLE doctor ADD CONSTRAINT uk_doctor_email UNIQUE (email);
+ALTER TABLE patient ADD CONSTRAINT uk_patient_email UNIQUE (email);
+ALTER TABLE patient ADD CONSTRAINT uk_patient_phone UNIQUE (phone);
+ALTER TABLE admin ADD CONSTRAINT uk_admin_username UNIQUE (username);
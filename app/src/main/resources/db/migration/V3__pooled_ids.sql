@@ -0,0 +1,17 @@
+-- Patients and appointments take ids from pooled sequences (allocationSize 50) instead of
+-- AUTO_INCREMENT, so Hibernate can batch their inserts. MySQL has no sequences; Hibernate
+-- emulates them with a one-row table. The first value handed out is next_val - 49, so each
+-- table is seeded 50 past its current highest id.
+
+ALTER TABLE patient MODIFY id BIGINT NOT NULL;
+ALTER TABLE appointment MODIFY id BIGINT NOT NULL;
+
+CREATE TABLE patient_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+INSERT INTO patient_seq SELECT COALESCE(MAX(id), 0) + 51 FROM patient;
+
+CREATE TABLE appointment_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+INSERT INTO appointment_seq SELECT COALESCE(MAX(id), 0) + 51 FROM appointment;
@@ -0,0 +1,27 @@
+-- Typed doctor schedules: one slot bitmask per weekday plus date-specific exceptions.
+-- Rows for existing doctors are backfilled from doctor_available_times at startup.
+
+CREATE TABLE doctor_schedule (
+    doctor_id      BIGINT  NOT NULL,
+    slot_minutes   INTEGER NOT NULL,
+    monday_mask    BIGINT  NOT NULL,
+    tuesday_mask   BIGINT  NOT NULL,
+    wednesday_mask BIGINT  NOT NULL,
+    thursday_mask  BIGINT  NOT NULL,
+    friday_mask    BIGINT  NOT NULL,
+    saturday_mask  BIGINT  NOT NULL,
+    sunday_mask    BIGINT  NOT NULL,
+    morning        BIT     NOT NULL,
+    afternoon      BIT     NOT NULL,
+    PRIMARY KEY (doctor_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE schedule_exception (
+    id             BIGINT       NOT NULL AUTO_INCREMENT,
+    doctor_id      BIGINT       NOT NULL,
+    exception_date DATE         NOT NULL,
+    mask           BIGINT       NOT NULL,
+    reason         VARCHAR(100),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_schedule_exception_doctor_date UNIQUE (doctor_id, exception_date)
+) ENGINE = InnoDB;
@@ -0,0 +1,11 @@
+-- One row per (doctor, quarter-hour) an appointment covers; the primary key stops double bookings.
+-- Appointments booked before this version have no claims and are still found by the overlap check.
+
+CREATE TABLE slot_claim (
+    doctor_id      BIGINT      NOT NULL,
+    slot_start     DATETIME(6) NOT NULL,
+    appointment_id BIGINT      NOT NULL,
+    PRIMARY KEY (doctor_id, slot_start)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_slot_claim_appointment ON slot_claim (appointment_id);
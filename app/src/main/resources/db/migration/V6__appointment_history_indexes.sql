@@ -0,0 +1,5 @@
+-- Patient history pages, status filters and the status sweeper.
+
+CREATE INDEX idx_appointment_patient_status_time ON appointment (patient_id, status, appointment_time);
+CREATE INDEX idx_appointment_patient_time ON appointment (patient_id, appointment_time);
+CREATE INDEX idx_appointment_status_time ON appointment (status, appointment_time);
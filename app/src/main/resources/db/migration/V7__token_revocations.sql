@@ -0,0 +1,10 @@
+-- Subjects whose tokens were revoked (e.g. a deleted doctor). Shared by every instance, so a
+-- revocation on one node is seen by the others the next time they verify or revalidate a token.
+
+CREATE TABLE token_revocation (
+    subject           VARCHAR(255) NOT NULL,
+    revoked_at_millis BIGINT       NOT NULL,
+    PRIMARY KEY (subject)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_token_revocation_revoked_at ON token_revocation (revoked_at_millis);
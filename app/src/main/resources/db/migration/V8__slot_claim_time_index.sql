@@ -0,0 +1,4 @@
+-- Slot claims are released by cell time once the cell has passed (see AppointmentStatusSweeper),
+-- not when the appointment starts; the sweeper's range delete needs slot_start on its own.
+
+CREATE INDEX idx_slot_claim_start ON slot_claim (slot_start);
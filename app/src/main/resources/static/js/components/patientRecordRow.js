@@ -5,6 +5,7 @@ export function createPatientRecordRow(patient) {
       <td class="patient-id">${patient.appointmentDate}</td>
       <td>${patient.id}</td>
       <td>${patient.patientId}</td>
+      <td>${formatPrescriptions(patient.prescriptions)}</td>
       <td><img src="../assets/images/addPrescriptionIcon/addPrescription.png" alt="addPrescriptionIcon" class="prescription-btn" data-id="${patient.id}"></img></td>
     `;
 
@@ -15,3 +16,20 @@ export function createPatientRecordRow(patient) {
 
   return tr;
 }
+
+// Prescriptions merged into the record row; null when the prescription store was unavailable
+function formatPrescriptions(prescriptions) {
+  if (prescriptions == null) return "Unavailable";
+  if (!prescriptions.length) return "None";
+  return prescriptions
+    .map(p => `${escapeHtml(p.medication)} (${escapeHtml(p.dosage)})`)
+    .join("<br>");
+}
+
+function escapeHtml(value) {
+  return String(value ?? "")
+    .replace(/&/g, "&amp;")
+    .replace(/</g, "&lt;")
+    .replace(/>/g, "&gt;")
+    .replace(/"/g, "&quot;");
+}
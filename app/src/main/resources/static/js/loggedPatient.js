@@ -1,7 +1,7 @@
 // loggedPatient.js 
 import { getDoctors } from './services/doctorServices.js';
 import { createDoctorCard } from './components/doctorCard.js';
-import { filterDoctors } from './services/doctorServices.js';
+import { filterDoctors, getDoctorAvailability } from './services/doctorServices.js';
 import { bookAppointment } from './services/appointmentRecordService.js';
 
 
@@ -59,6 +59,19 @@ export function showBookingOverlay(e, doctor, patient) {
 
   setTimeout(() => modalApp.classList.add("active"), 600);
 
+  // The weekly list above ignores weekdays, exceptions and bookings: once a date is picked,
+  // offer only the slots the server would accept for it
+  const timeSelect = modalApp.querySelector("#appointment-time");
+  modalApp.querySelector("#appointment-date").addEventListener("change", async (event) => {
+    const date = event.target.value;
+    if (!date) return;
+
+    const slots = await getDoctorAvailability(doctor.id, date, localStorage.getItem("token"));
+    const placeholder = slots.length > 0 ? "Select time" : "No free slots on this date";
+    timeSelect.innerHTML = `<option value="">${placeholder}</option>`
+      + slots.map(t => `<option value="${t}">${t}</option>`).join('');
+  });
+
   modalApp.querySelector(".confirm-booking").addEventListener("click", async () => {
     const date = modalApp.querySelector("#appointment-date").value;
     const time = modalApp.querySelector("#appointment-time").value;
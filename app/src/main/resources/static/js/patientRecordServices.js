@@ -1,5 +1,5 @@
 // patientRecordServices.js
-import { getPatientAppointments } from "./services/patientServices.js";
+import { getPatientRecord } from "./services/patientServices.js";
 import { createPatientRecordRow } from './components/patientRecordRow.js';
 
 const tableBody = document.getElementById("patientTableBody");
@@ -15,13 +15,17 @@ async function initializePage() {
   try {
     if (!token) throw new Error("No token found");
 
-    const appointmentData = await getPatientAppointments(patientId, token, "doctor") || [];
+    const record = await getPatientRecord(patientId, token);
+    if (!record) throw new Error("Record not loaded");
 
-    // Filter by both patientId and doctorId
-    const filteredAppointments = appointmentData.filter(app =>
+    // The record covers every appointment of the patient; keep this doctor's
+    const filteredAppointments = record.appointments.filter(app =>
       app.doctorId == doctorId);
-    console.log(filteredAppointments)
     renderAppointments(filteredAppointments);
+
+    if (record.unavailable.length) {
+      alert(`⚠️ Part of this record could not be loaded: ${record.unavailable.join(", ")}.`);
+    }
   } catch (error) {
     console.error("Error loading appointments:", error);
     alert("❌ Failed to load your appointments.");
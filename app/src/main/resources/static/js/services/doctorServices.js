@@ -156,3 +156,34 @@ export async function filterDoctors(name, time, specialty) {
         return [];
     }
 }
+
+/**
+ * Bookable slots of a doctor on one date (same rules the booking check applies)
+ * GET {DOCTOR_API}/availability/patient/{doctorId}/{date}
+ * @param {number|string} doctorId
+ * @param {string} date yyyy-MM-dd
+ * @param {string} token
+ * @returns {Promise<Array<string>>} "HH:mm-HH:mm" slots or []
+ */
+export async function getDoctorAvailability(doctorId, date, token) {
+    try {
+        const res = await fetch(`${DOCTOR_API}/availability/patient/${doctorId}/${date}`, {
+            method: "GET",
+            headers: {
+                "Content-Type": "application/json",
+                Authorization: `Bearer ${token}`,
+            },
+        });
+
+        if (!res.ok) {
+            console.error("getDoctorAvailability failed:", res.status);
+            return [];
+        }
+
+        const data = await res.json();
+        return Array.isArray(data?.availability) ? data.availability : [];
+    } catch (err) {
+        console.error("getDoctorAvailability error:", err);
+        return [];
+    }
+}
@@ -96,7 +96,7 @@ export async function getPatientData(token) {
  *
  * Suggested patterns:
  * - If user === "patient": GET /patient/{id}/appointments
- * - If user === "doctor":  GET /patient/appointments?patientId={id}
+ * - If user === "doctor":  GET /patient/{id}/record (appointments with their prescriptions)
  *
  * NOTE: Adjust the URL logic below if your backend endpoints differ.
  *
@@ -109,16 +109,15 @@ export async function getPatientAppointments(id, token, user) {
   try {
     if (!id || !token) return null;
 
-    let url = "";
-
     if (user === "doctor") {
-      // doctor dashboard fetching patient appointments (example)
-      url = `${PATIENT_API}/appointments?patientId=${encodeURIComponent(id)}`;
-    } else {
-      // patient dashboard fetching own appointments (example)
-      url = `${PATIENT_API}/${encodeURIComponent(id)}/appointments`;
+      // doctor opening a patient record: one call returns appointments and prescriptions
+      const record = await getPatientRecord(id, token);
+      return record ? record.appointments : null;
     }
 
+    // patient dashboard fetching own appointments (example)
+    const url = `${PATIENT_API}/${encodeURIComponent(id)}/appointments`;
+
     const res = await fetch(url, {
       method: "GET",
       headers: {
@@ -133,13 +132,53 @@ export async function getPatientAppointments(id, token, user) {
     }
 
     const data = await res.json();
-    return Array.isArray(data) ? data : [];
+    if (Array.isArray(data)) return data;
+    return Array.isArray(data.appointments) ? data.appointments : [];
   } catch (err) {
     console.error("getPatientAppointments error:", err);
     return null;
   }
 }
 
+/**
+ * Fetch a patient's whole record for the doctor view
+ * GET {PATIENT_API}/{id}/record
+ *
+ * Without a limit the backend returns every appointment, each with its prescriptions
+ * (prescriptions is null on a row when the prescription store was unavailable).
+ *
+ * @param {number|string} id
+ * @param {string} token
+ * @returns {Promise<{appointments: Array, unavailable: Array}|null>} record or null if failure
+ */
+export async function getPatientRecord(id, token) {
+  try {
+    if (!id || !token) return null;
+
+    const res = await fetch(`${PATIENT_API}/${encodeURIComponent(id)}/record`, {
+      method: "GET",
+      headers: {
+        "Content-Type": "application/json",
+        Authorization: `Bearer ${token}`,
+      },
+    });
+
+    if (!res.ok) {
+      console.error("getPatientRecord failed:", res.status);
+      return null;
+    }
+
+    const data = await res.json();
+    return {
+      appointments: Array.isArray(data.appointments) ? data.appointments : [],
+      unavailable: Array.isArray(data.unavailable) ? data.unavailable : [],
+    };
+  } catch (err) {
+    console.error("getPatientRecord error:", err);
+    return null;
+  }
+}
+
 /**
  * Filter appointments
  * GET {PATIENT_API}/appointments/filter?condition=...&name=...
@@ -173,7 +212,8 @@ export async function filterAppointments(condition, name, token) {
     }
 
     const data = await res.json();
-    return Array.isArray(data) ? data : [];
+    if (Array.isArray(data)) return data;
+    return Array.isArray(data.appointments) ? data.appointments : [];
   } catch (err) {
     console.error("filterAppointments error:", err);
     alert("Unexpected error while filtering appointments.");
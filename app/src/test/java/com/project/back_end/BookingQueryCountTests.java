@@ -0,0 +1,101 @@
+package com.project.back_end;
+
+import com.project.back_end.config.QueryCounter;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import com.project.back_end.services.AppointmentService;
+import com.project.back_end.services.DoctorDeletionService;
+import com.project.back_end.services.DoctorService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Statement budget of the booking pipeline, counted by QueryCounter on the calling thread
+// (the same counter TokenAuthenticationFilter logs per request).
+@SpringBootTest
+class BookingQueryCountTests {
+
+    @Autowired
+    private AppointmentService appointmentService;
+    @Autowired
+    private DoctorService doctorService;
+    @Autowired
+    private DoctorDeletionService doctorDeletionService;
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+    @Autowired
+    private DoctorRepository doctorRepository;
+    @Autowired
+    private PatientRepository patientRepository;
+
+    private Doctor doctor;
+    private Patient patient;
+    private final LocalDate day = LocalDate.now().plusDays(3);
+
+    @BeforeEach
+    void setUp() {
+        doctor = TestFixtures.registerDoctor(doctorService, doctorRepository,
+                "Budget Doctor", "Dermatology", "10:00-11:00", "12:00-13:00", "14:00-15:00");
+        patient = patientRepository.save(TestFixtures.patient("Budget Patient"));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        doctorDeletionService.start(doctor.getId()).getCompletion().get(1, TimeUnit.MINUTES);
+        patientRepository.delete(patient);
+        QueryCounter.clear();
+    }
+
+    @Test
+    void bookingLoadsNothingTwice() {
+        // Cold day: one conflict lookup, the appointment insert, one batched claim insert
+        QueryCounter.reset();
+        assertEquals(1, appointmentService.bookAppointment(appointment(day.atTime(10, 0)), patient.getId()));
+        assertTrue(QueryCounter.current() <= 3, "cold booking ran " + QueryCounter.current() + " statements");
+
+        // Warm day: the conflict check is answered in memory
+        QueryCounter.reset();
+        assertEquals(1, appointmentService.bookAppointment(appointment(day.atTime(12, 0)), patient.getId()));
+        assertTrue(QueryCounter.current() <= 2, "warm booking ran " + QueryCounter.current() + " statements");
+    }
+
+    @Test
+    void reschedulingLoadsTheAppointmentOnce() {
+        assertEquals(1, appointmentService.bookAppointment(appointment(day.atTime(10, 0)), patient.getId()));
+        Long id = appointmentRepository.findByPatientId(patient.getId()).get(0).getId();
+
+        // Load, release claims, update, insert claims
+        Appointment moved = appointment(day.atTime(14, 0));
+        moved.setId(id);
+        QueryCounter.reset();
+        assertEquals(200, appointmentService.updateAppointment(moved, patient.getId()).getStatusCode().value());
+        assertTrue(QueryCounter.current() <= 4, "reschedule ran " + QueryCounter.current() + " statements");
+    }
+
+    @Test
+    void takenSlotIsRejectedWithoutWriting() {
+        assertEquals(1, appointmentService.bookAppointment(appointment(day.atTime(10, 0)), patient.getId()));
+
+        // The cached conflict is confirmed by re-reading the day once; nothing is written
+        QueryCounter.reset();
+        assertEquals(0, appointmentService.bookAppointment(appointment(day.atTime(10, 0)), patient.getId()));
+        assertEquals(1, QueryCounter.current());
+    }
+
+    private Appointment appointment(LocalDateTime time) {
+        return TestFixtures.appointment(doctor.getId(), patient.getId(), time);
+    }
+}
@@ -0,0 +1,130 @@
+package com.project.back_end;
+
+import com.project.back_end.DTO.ScheduleExceptionDTO;
+import com.project.back_end.DTO.WeeklyScheduleDTO;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.DoctorSchedule;
+import com.project.back_end.models.Patient;
+import com.project.back_end.models.ScheduleException;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.DoctorScheduleRepository;
+import com.project.back_end.repo.PatientRepository;
+import com.project.back_end.repo.PrescriptionRepository;
+import com.project.back_end.repo.ScheduleExceptionRepository;
+import com.project.back_end.services.AppointmentService;
+import com.project.back_end.services.DoctorDeletionService;
+import com.project.back_end.services.DoctorService;
+import com.project.back_end.services.ScheduleService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+// A doctor deletion that fails part way must leave the doctor exactly as it was:
+// weekly template and date exceptions still stored, slots offered again.
+@SpringBootTest
+class DoctorDeletionFailureTests {
+
+    @Autowired
+    private DoctorDeletionService doctorDeletionService;
+    @Autowired
+    private DoctorService doctorService;
+    @Autowired
+    private AppointmentService appointmentService;
+    @Autowired
+    private ScheduleService scheduleService;
+    @Autowired
+    private DoctorRepository doctorRepository;
+    @Autowired
+    private PatientRepository patientRepository;
+    @Autowired
+    private DoctorScheduleRepository scheduleRepository;
+    @Autowired
+    private ScheduleExceptionRepository exceptionRepository;
+
+    // Prescriptions are deleted first in every chunk, so a failure here stops the job before any MySQL delete
+    @MockitoBean
+    private PrescriptionRepository prescriptionRepository;
+
+    private Doctor doctor;
+    private Patient patient;
+    private final LocalDate monday = LocalDate.now().plusWeeks(1).with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+
+    @BeforeEach
+    void setUp() {
+        doctor = TestFixtures.registerDoctor(doctorService, doctorRepository,
+                "Failing Deletion Doctor", "Cardiology", "09:00-10:00");
+        patient = patientRepository.save(TestFixtures.patient("Failing Deletion Patient"));
+
+        // Different hours per weekday, which availableTimes alone could not reproduce
+        Map<DayOfWeek, List<String>> days = new EnumMap<>(DayOfWeek.class);
+        days.put(DayOfWeek.MONDAY, List.of("09:00", "10:00"));
+        days.put(DayOfWeek.TUESDAY, List.of("14:00"));
+        WeeklyScheduleDTO weekly = new WeeklyScheduleDTO();
+        weekly.setDays(days);
+        assertEquals(1, doctorService.saveWeeklySchedule(doctor.getId(), weekly));
+
+        ScheduleExceptionDTO dayOff = new ScheduleExceptionDTO();
+        dayOff.setDate(monday.plusDays(1));
+        dayOff.setTimes(List.of());
+        dayOff.setReason("Conference");
+        assertEquals(1, scheduleService.saveException(doctor.getId(), dayOff));
+
+        assertEquals(1, appointmentService.bookAppointment(
+                TestFixtures.appointment(doctor.getId(), patient.getId(), monday.atTime(9, 0)), patient.getId()));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        Mockito.reset(prescriptionRepository);
+        doctorDeletionService.start(doctor.getId()).getCompletion().get(1, TimeUnit.MINUTES);
+        patientRepository.delete(patient);
+    }
+
+    @Test
+    void failedDeletionKeepsTheStoredSchedule() throws Exception {
+        DoctorSchedule before = scheduleRepository.findById(doctor.getId()).orElseThrow();
+        List<ScheduleException> exceptionsBefore = exceptionRepository
+                .findByDoctorIdAndDateGreaterThanEqual(doctor.getId(), LocalDate.now());
+
+        when(prescriptionRepository.deleteByAppointmentIdIn(any())).thenThrow(new IllegalStateException("Mongo down"));
+        DoctorDeletionService.Job job = doctorDeletionService.start(doctor.getId());
+        job.getCompletion().get(1, TimeUnit.MINUTES);
+        assertEquals("FAILED", job.toMap().get("state"));
+
+        assertTrue(doctorRepository.existsById(doctor.getId()));
+        DoctorSchedule after = scheduleRepository.findById(doctor.getId()).orElseThrow();
+        for (DayOfWeek day : DayOfWeek.values()) {
+            assertEquals(before.getMask(day), after.getMask(day), day + " mask changed");
+        }
+
+        List<ScheduleException> exceptionsAfter = exceptionRepository
+                .findByDoctorIdAndDateGreaterThanEqual(doctor.getId(), LocalDate.now());
+        assertEquals(exceptionsBefore.size(), exceptionsAfter.size());
+        for (int i = 0; i < exceptionsBefore.size(); i++) {
+            assertEquals(exceptionsBefore.get(i).getDate(), exceptionsAfter.get(i).getDate());
+            assertEquals(exceptionsBefore.get(i).getMask(), exceptionsAfter.get(i).getMask());
+        }
+
+        // Unhidden again: Monday hours offered, Tuesday still off for the conference
+        assertEquals(List.of(LocalTime.of(9, 0), LocalTime.of(10, 0)), scheduleService.getSlots(doctor.getId(), monday));
+        assertTrue(scheduleService.getSlots(doctor.getId(), monday.plusDays(1)).isEmpty());
+    }
+}
@@ -0,0 +1,246 @@
+package com.project.back_end;
+
+import com.mongodb.ConnectionString;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.services.TokenService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Mongo is reached through a local proxy that can delay every request. With Mongo slowed to
+// several hundred milliseconds and prescription reads saturating it, a MySQL-only endpoint
+// (the doctor listing) must keep most of its throughput on a deliberately small Tomcat pool.
+// Tagged "load": excluded from the default build, run with -Pload-tests.
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.tomcat.threads.max=16",
+        "prescriptions.reactive.enabled=true"
+})
+class PrescriptionSlowMongoLoadTests {
+
+    private static final Logger log = LoggerFactory.getLogger(PrescriptionSlowMongoLoadTests.class);
+
+    private static final Duration MONGO_DELAY = Duration.ofMillis(800);
+    private static final Duration MEASURE = Duration.ofSeconds(5);
+    private static final int MYSQL_CLIENTS = 8;
+    private static final int MONGO_CLIENTS = 64;
+
+    private static final SlowProxy MONGO = SlowProxy.start(new ConnectionString(
+            System.getProperty("spring.data.mongodb.uri",
+                    System.getenv().getOrDefault("SPRING_DATA_MONGODB_URI", "mongodb://mongo:27017"))));
+
+    @DynamicPropertySource
+    static void mongoThroughProxy(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", () -> "mongodb://127.0.0.1:" + MONGO.port() + "/?directConnection=true");
+    }
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private TokenService tokenService;
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private Doctor doctor;
+    private String doctorToken;
+
+    @BeforeEach
+    void setUp() {
+        doctor = doctorRepository.save(TestFixtures.doctor("Load Doctor", "Cardiology", "10:00-11:00"));
+        doctorToken = tokenService.generateToken(doctor.getEmail(), "doctor", doctor.getId());
+    }
+
+    @AfterEach
+    void tearDown() {
+        MONGO.delay(Duration.ZERO);
+        doctorRepository.delete(doctor);
+    }
+
+    @AfterAll
+    static void stopProxy() {
+        MONGO.close();
+    }
+
+    @Test
+    void mysqlEndpointsKeepThroughputWhileMongoIsSlow() throws Exception {
+        double baseline = mysqlThroughput();
+
+        MONGO.delay(MONGO_DELAY);
+        AtomicBoolean loading = new AtomicBoolean(true);
+        AtomicLong mongoCompleted = new AtomicLong();
+        ExecutorService mongoLoad = Executors.newFixedThreadPool(MONGO_CLIENTS);
+        try {
+            for (int i = 0; i < MONGO_CLIENTS; i++) {
+                long appointmentId = -1 - i;
+                mongoLoad.submit(() -> {
+                    while (loading.get()) {
+                        if (get("/api/prescription/" + appointmentId, doctorToken) == 200) mongoCompleted.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            // Let the prescription requests pile up on the slow Mongo first
+            Thread.sleep(MONGO_DELAY.toMillis());
+
+            double underLoad = mysqlThroughput();
+            log.info("Doctor listing: {} req/s baseline, {} req/s with Mongo slowed by {} ms ({} prescription reads)",
+                    String.format("%.1f", baseline), String.format("%.1f", underLoad), MONGO_DELAY.toMillis(), mongoCompleted.get());
+
+            assertTrue(mongoCompleted.get() > 0, "prescription reads should still complete");
+            assertTrue(underLoad >= baseline * 0.5,
+                    "MySQL throughput fell from " + baseline + " to " + underLoad + " req/s");
+        } finally {
+            loading.set(false);
+            mongoLoad.shutdown();
+            mongoLoad.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+
+    // ---------- Helpers ----------
+
+    // Completed doctor-listing requests per second over MEASURE, from MYSQL_CLIENTS closed-loop clients
+    private double mysqlThroughput() throws Exception {
+        long deadline = System.nanoTime() + MEASURE.toNanos();
+        AtomicLong completed = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        ExecutorService clients = Executors.newFixedThreadPool(MYSQL_CLIENTS);
+        for (int i = 0; i < MYSQL_CLIENTS; i++) {
+            clients.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    if (get("/api/doctor?size=20", null) == 200) completed.incrementAndGet();
+                    else failed.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        clients.shutdown();
+        assertTrue(clients.awaitTermination(MEASURE.toSeconds() + 30, TimeUnit.SECONDS));
+        assertEquals(0, failed.get(), "doctor listing requests failed");
+        return completed.get() / (double) MEASURE.toSeconds();
+    }
+
+    private int get(String path, String token) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET();
+        if (token != null) request.header("Authorization", "Bearer " + token);
+        return client.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    // TCP proxy in front of the real Mongo that holds every client-to-server chunk for the current delay
+    static final class SlowProxy implements AutoCloseable {
+
+        private final ServerSocket server;
+        private final InetSocketAddress upstream;
+        private final AtomicLong delayMillis = new AtomicLong();
+        private final ExecutorService pumps = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "slow-mongo-proxy");
+            t.setDaemon(true);
+            return t;
+        });
+
+        private SlowProxy(ServerSocket server, InetSocketAddress upstream) {
+            this.server = server;
+            this.upstream = upstream;
+        }
+
+        static SlowProxy start(ConnectionString target) {
+            String[] hostPort = target.getHosts().get(0).split(":");
+            InetSocketAddress upstream = new InetSocketAddress(hostPort[0],
+                    hostPort.length > 1 ? Integer.parseInt(hostPort[1]) : 27017);
+            try {
+                SlowProxy proxy = new SlowProxy(new ServerSocket(0), upstream);
+                proxy.pumps.submit(proxy::accept);
+                return proxy;
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot start the Mongo proxy", e);
+            }
+        }
+
+        int port() {
+            return server.getLocalPort();
+        }
+
+        void delay(Duration delay) {
+            delayMillis.set(delay.toMillis());
+        }
+
+        private void accept() {
+            while (!server.isClosed()) {
+                try {
+                    Socket client = server.accept();
+                    Socket mongo = new Socket(upstream.getHostString(), upstream.getPort());
+                    pumps.submit(() -> pump(client, mongo, true));
+                    pumps.submit(() -> pump(mongo, client, false));
+                } catch (IOException e) {
+                    // Closed, or Mongo refused this connection; the driver will retry
+                }
+            }
+        }
+
+        private void pump(Socket from, Socket to, boolean delayed) {
+            byte[] buffer = new byte[16 * 1024];
+            try (InputStream in = from.getInputStream(); OutputStream out = to.getOutputStream()) {
+                int n;
+                while ((n = in.read(buffer)) != -1) {
+                    long delay = delayMillis.get();
+                    if (delayed && delay > 0) Thread.sleep(delay);
+                    out.write(buffer, 0, n);
+                    out.flush();
+                }
+            } catch (IOException | InterruptedException e) {
+                // Connection closed by either side
+            } finally {
+                closeQuietly(from);
+                closeQuietly(to);
+            }
+        }
+
+        private static void closeQuietly(Socket socket) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // Already closed
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                server.close();
+            } catch (IOException ignored) {
+                // Already closed
+            }
+            pumps.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.project.back_end;
+
+import com.project.back_end.repo.AdminRepository;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.DoctorSpecifications;
+import com.project.back_end.repo.PatientRepository;
+import com.project.back_end.repo.ScheduleExceptionRepository;
+import com.project.back_end.repo.SlotClaimRepository;
+import com.project.back_end.repo.TokenRevocationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// EXPLAIN of every hot repository query against the migrated schema.
+// Each repository method is called for real and the SQL Hibernate generated for it is captured at the
+// driver (SqlCapture), so the plan checked is the plan of the statement production runs.
+// A query fails when MySQL has no usable index for one of its tables (full table or full index scan
+// with no possible_keys), or still picks a full scan once the table is large enough for it to matter.
+// Doctor name/specialty LIKE searches are served by DoctorDirectory and are deliberately not listed.
+@SpringBootTest(properties =
+        "spring.datasource.hikari.data-source-properties.queryInterceptors=com.project.back_end.SqlCapture")
+class QueryPlanTests {
+
+    // Below this many estimated rows the optimizer may prefer a scan even when an index exists
+    private static final long SCAN_TOLERANCE_ROWS = 1000;
+
+    // Arguments that match nothing, so the write queries below leave the data alone
+    private static final Long NO_ID = -1L;
+    private static final List<Long> NO_IDS = List.of(-1L, -2L, -3L);
+    private static final LocalDateTime DAY_START = LocalDate.of(2030, 1, 1).atStartOfDay();
+    private static final LocalDateTime LONG_AGO = LocalDate.of(2000, 1, 1).atStartOfDay();
+    private static final Limit PAGE = Limit.of(51);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private SlotClaimRepository slotClaimRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private AdminRepository adminRepository;
+
+    @Autowired
+    private ScheduleExceptionRepository scheduleExceptionRepository;
+
+    @Autowired
+    private TokenRevocationRepository tokenRevocationRepository;
+
+    @Test
+    void hotQueriesUseAnIndex() {
+        Map<String, Runnable> hotQueries = new LinkedHashMap<>();
+
+        hotQueries.put("AppointmentRepository.findDTOsByDoctorIdBetween", () ->
+                appointmentRepository.findDTOsByDoctorIdBetween(NO_ID, DAY_START, DAY_START.plusDays(1)));
+        hotQueries.put("AppointmentRepository.findDTOsByDoctorIdAndPatientNameBetween", () ->
+                appointmentRepository.findDTOsByDoctorIdAndPatientNameBetween(
+                        NO_ID, "smith", DAY_START, DAY_START.plusDays(1)));
+        hotQueries.put("AppointmentRepository.findAppointmentTimesByDoctorIdBetween", () ->
+                appointmentRepository.findAppointmentTimesByDoctorIdBetween(NO_ID, DAY_START, DAY_START.plusDays(1)));
+        hotQueries.put("AppointmentRepository.findIdsByDoctorId", () ->
+                appointmentRepository.findIdsByDoctorId(NO_ID, Limit.of(500)));
+        hotQueries.put("AppointmentRepository.findDTOPageByPatientId", () ->
+                appointmentRepository.findDTOPageByPatientId(NO_ID, DAY_START, 1L, PAGE));
+        hotQueries.put("AppointmentRepository.findDTOPageByPatientIdAndStatus", () ->
+                appointmentRepository.findDTOPageByPatientIdAndStatus(NO_ID, 0, DAY_START, 1L, PAGE));
+        hotQueries.put("AppointmentRepository.filterDTOPageByDoctorNameAndPatientId", () ->
+                appointmentRepository.filterDTOPageByDoctorNameAndPatientId("house", NO_ID, DAY_START, 1L, PAGE));
+        hotQueries.put("AppointmentRepository.filterDTOPageByDoctorNameAndPatientIdAndStatus", () ->
+                appointmentRepository.filterDTOPageByDoctorNameAndPatientIdAndStatus(
+                        "house", NO_ID, 1, DAY_START, 1L, PAGE));
+        hotQueries.put("AppointmentRepository.findElapsedAfter", () ->
+                appointmentRepository.findElapsedAfter(DAY_START, LONG_AGO, 0L, Limit.of(500)));
+        hotQueries.put("AppointmentRepository.markPast", () -> appointmentRepository.markPast(NO_IDS));
+        hotQueries.put("AppointmentRepository.deleteByIds", () -> appointmentRepository.deleteByIds(NO_IDS));
+
+        hotQueries.put("SlotClaimRepository.deleteByAppointmentIds", () ->
+                slotClaimRepository.deleteByAppointmentIds(NO_IDS));
+        hotQueries.put("SlotClaimRepository.deleteByDoctorId", () -> slotClaimRepository.deleteByDoctorId(NO_ID));
+        hotQueries.put("SlotClaimRepository.deleteCellsStartingBefore", () ->
+                slotClaimRepository.deleteCellsStartingBefore(LONG_AGO));
+
+        hotQueries.put("DoctorRepository.findByEmail", () -> doctorRepository.findByEmail("doctor@example.com"));
+        hotQueries.put("DoctorRepository.findListingAfter", () ->
+                doctorRepository.findListingAfter(0L, Limit.of(50)));
+        hotQueries.put("DoctorSpecifications.availableIn", () ->
+                doctorRepository.findAll(DoctorSpecifications.matching(null, null, "AM")));
+
+        hotQueries.put("PatientRepository.findByEmail", () -> patientRepository.findByEmail("patient@example.com"));
+        hotQueries.put("PatientRepository.existsByEmailOrPhone", () ->
+                patientRepository.existsByEmailOrPhone("patient@example.com", "5550000000"));
+        hotQueries.put("PatientRepository.findContactsAfter", () ->
+                patientRepository.findContactsAfter(0L, Limit.of(5000)));
+        hotQueries.put("PatientRepository.findExistingEmails", () ->
+                patientRepository.findExistingEmails(List.of("a@example.com", "b@example.com")));
+
+        hotQueries.put("AdminRepository.findByUsername", () -> adminRepository.findByUsername("admin"));
+
+        hotQueries.put("ScheduleExceptionRepository.findByDoctorIdAndDateGreaterThanEqual", () ->
+                scheduleExceptionRepository.findByDoctorIdAndDateGreaterThanEqual(NO_ID, DAY_START.toLocalDate()));
+
+        hotQueries.put("TokenRevocationRepository.findById", () ->
+                tokenRevocationRepository.findById("nobody@example.com"));
+
+        List<String> failures = new ArrayList<>();
+
+        hotQueries.forEach((query, call) -> {
+            List<String> statements = SqlCapture.capture(call).stream()
+                    .filter(QueryPlanTests::isExplainable)
+                    .toList();
+            if (statements.isEmpty()) {
+                failures.add(query + ": issued no SQL");
+                return;
+            }
+
+            for (String sql : statements) {
+                for (Map<String, Object> row : jdbcTemplate.queryForList("EXPLAIN " + sql)) {
+                    String type = (String) row.get("type");
+                    if (!"ALL".equals(type) && !"index".equals(type)) continue;
+
+                    Object table = row.get("table");
+                    Object possibleKeys = row.get("possible_keys");
+                    Number rows = (Number) row.get("rows");
+
+                    if (possibleKeys == null) {
+                        failures.add(query + ": no usable index on " + table + " (" + type + ")\n  " + sql);
+                    } else if ("ALL".equals(type) && rows != null && rows.longValue() >= SCAN_TOLERANCE_ROWS) {
+                        failures.add(query + ": full scan of " + table + " (~" + rows + " rows) despite "
+                                + possibleKeys + "\n  " + sql);
+                    }
+                }
+            }
+        });
+
+        assertTrue(failures.isEmpty(), String.join("\n", failures));
+    }
+
+    // Data statements only; the driver also sends session variable reads and transaction control
+    private static boolean isExplainable(String sql) {
+        String s = sql.stripLeading().toLowerCase(Locale.ROOT);
+        return (s.startsWith("select") || s.startsWith("update") || s.startsWith("delete"))
+                && !s.startsWith("select @@");
+    }
+}
@@ -0,0 +1,114 @@
+package com.project.back_end;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import com.project.back_end.services.AppointmentService;
+import com.project.back_end.services.DoctorDeletionService;
+import com.project.back_end.services.DoctorService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Many threads spread over two application instances (one MySQL) race for the same doctor slot.
+// Every round must end with exactly one booking, whatever the in-memory caches believed.
+@SpringBootTest
+class SlotClaimConcurrencyTests {
+
+    private static final int THREADS = 32;
+    private static final int ROUNDS = 10;
+
+    @Autowired
+    private AppointmentService appointmentService;
+    @Autowired
+    private DoctorService doctorService;
+    @Autowired
+    private DoctorDeletionService doctorDeletionService;
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+    @Autowired
+    private DoctorRepository doctorRepository;
+    @Autowired
+    private PatientRepository patientRepository;
+
+    private ConfigurableApplicationContext secondInstance;
+    private Doctor doctor;
+    private final List<Patient> patients = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        secondInstance = new SpringApplicationBuilder(BackEndApplication.class)
+                .web(WebApplicationType.NONE)
+                .run();
+
+        // Half-past starts, so 10:00 and 10:30 are both bookable and overlap as one-hour appointments
+        doctor = TestFixtures.registerDoctor(doctorService, doctorRepository,
+                "Race Doctor", "Cardiology", "10:00-11:00", "10:30-11:30");
+
+        for (int i = 0; i < THREADS; i++) {
+            patients.add(patientRepository.save(TestFixtures.patient("Race Patient " + i)));
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        doctorDeletionService.start(doctor.getId()).getCompletion().get(1, TimeUnit.MINUTES);
+        patientRepository.deleteAll(patients);
+        secondInstance.close();
+    }
+
+    @Test
+    void concurrentBookingsAcrossTwoInstancesNeverDoubleBook() throws Exception {
+        AppointmentService[] instances = {appointmentService, secondInstance.getBean(AppointmentService.class)};
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                LocalDateTime slot = LocalDate.now().plusDays(1 + round).atTime(10, 0);
+                CountDownLatch start = new CountDownLatch(1);
+
+                List<Future<Integer>> results = new ArrayList<>();
+                for (int i = 0; i < THREADS; i++) {
+                    AppointmentService service = instances[i % instances.length];
+                    // A quarter of the callers ask for an overlapping start instead of the same one
+                    LocalDateTime time = i % 4 == 3 ? slot.plusMinutes(30) : slot;
+                    Patient patient = patients.get(i);
+                    Appointment appointment = TestFixtures.appointment(doctor.getId(), patient.getId(), time);
+                    results.add(pool.submit(() -> {
+                        start.await();
+                        return service.bookAppointment(appointment, patient.getId());
+                    }));
+                }
+                start.countDown();
+
+                int booked = 0;
+                for (Future<Integer> f : results) {
+                    if (f.get(60, TimeUnit.SECONDS) == 1) booked++;
+                }
+
+                List<LocalDateTime> stored = appointmentRepository.findAppointmentTimesByDoctorIdBetween(
+                        doctor.getId(), slot.minusHours(1), slot.plusHours(2));
+                assertEquals(1, booked, "round " + round);
+                assertEquals(1, stored.size(), "round " + round);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
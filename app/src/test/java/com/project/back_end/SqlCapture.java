@@ -0,0 +1,62 @@
+package com.project.back_end;
+
+import com.mysql.cj.MysqlConnection;
+import com.mysql.cj.Query;
+import com.mysql.cj.interceptors.QueryInterceptor;
+import com.mysql.cj.log.Log;
+import com.mysql.cj.protocol.Resultset;
+import com.mysql.cj.protocol.ServerSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Supplier;
+
+// Records the SQL the driver sends on the calling thread while capture(...) runs.
+// Installed through the queryInterceptors connection property. Client-side prepared statements
+// (the Connector/J default) send their parameters inlined, so each entry is the exact statement
+// MySQL executed, literals included, and can be run under EXPLAIN as it is.
+public class SqlCapture implements QueryInterceptor {
+
+    private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+    static List<String> capture(Runnable call) {
+        List<String> statements = new ArrayList<>();
+        CAPTURED.set(statements);
+        try {
+            call.run();
+        } finally {
+            CAPTURED.remove();
+        }
+        return statements;
+    }
+
+    @Override
+    public QueryInterceptor init(MysqlConnection conn, Properties props, Log log) {
+        return this;
+    }
+
+    @Override
+    public <T extends Resultset> T preProcess(Supplier<String> sql, Query interceptedQuery) {
+        List<String> statements = CAPTURED.get();
+        if (statements != null) {
+            statements.add(sql.get());
+        }
+        return null;
+    }
+
+    @Override
+    public boolean executeTopLevelOnly() {
+        return true;
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    @Override
+    public <T extends Resultset> T postProcess(Supplier<String> sql, Query interceptedQuery,
+                                               T originalResultSet, ServerSession serverSession) {
+        return null;
+    }
+}
@@ -0,0 +1,75 @@
+package com.project.back_end;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.services.DoctorService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Doctors, patients and booking requests shared by the integration tests.
+// Every entity gets its own email (and phone, for patients), so tests and runs never collide.
+final class TestFixtures {
+
+    static final String PASSWORD = "secret123";
+
+    private static final AtomicLong UNIQUE = new AtomicLong(System.nanoTime());
+
+    private TestFixtures() {
+    }
+
+    // Unsaved doctor, e.g. doctor("Budget Doctor", "Dermatology", "10:00-11:00")
+    static Doctor doctor(String name, String specialty, String... availableTimes) {
+        Doctor d = new Doctor();
+        d.setName(name);
+        d.setSpecialty(specialty);
+        d.setEmail(emailFor(name));
+        d.setPassword(PASSWORD);
+        d.setPhone("5550000000");
+        d.setAvailableTimes(new ArrayList<>(List.of(availableTimes)));
+        return d;
+    }
+
+    // Saved through DoctorService, so the schedule, directory and slot calendar know the doctor
+    static Doctor registerDoctor(DoctorService doctorService, DoctorRepository doctorRepository,
+                                 String name, String specialty, String... availableTimes) {
+        Doctor d = doctor(name, specialty, availableTimes);
+        doctorService.saveDoctor(d);
+        return doctorRepository.findByEmail(d.getEmail());
+    }
+
+    // Unsaved patient
+    static Patient patient(String name) {
+        long unique = UNIQUE.incrementAndGet();
+        Patient p = new Patient();
+        p.setName(name);
+        p.setEmail(emailFor(name));
+        p.setPassword(PASSWORD);
+        p.setPhone(String.format("%010d", Math.floorMod(unique, 10_000_000_000L)));
+        p.setAddress("1 Test Street");
+        return p;
+    }
+
+    // Booking request as the API receives it: doctor and patient by id only
+    static Appointment appointment(Long doctorId, Long patientId, LocalDateTime time) {
+        Doctor d = new Doctor();
+        d.setId(doctorId);
+        Patient p = new Patient();
+        p.setId(patientId);
+
+        Appointment a = new Appointment();
+        a.setDoctor(d);
+        a.setPatient(p);
+        a.setAppointmentTime(time);
+        a.setStatus(0);
+        return a;
+    }
+
+    private static String emailFor(String name) {
+        return name.toLowerCase().replace(' ', '.') + "." + UNIQUE.incrementAndGet() + "@example.com";
+    }
+}
@@ -0,0 +1,224 @@
+package com.project.back_end;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import com.project.back_end.services.DoctorDeletionService;
+import com.project.back_end.services.DoctorService;
+import com.project.back_end.services.TokenService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Booking and availability under the same closed-loop load in both execution modes:
+// platform threads (default Tomcat pool) and virtual threads with the pool-sized limiter
+// (profile "virtual"). Logs throughput and p99 latency per mode and endpoint; asserts only
+// that no request failed, since the numbers depend on the machine. Needs a JDK 21+ runtime.
+// Tagged "load": excluded from the default build, run with -Pload-tests.
+@Tag("load")
+class VirtualThreadBenchmarkTests {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadBenchmarkTests.class);
+
+    private static final int CLIENTS = 400;
+    private static final Duration WARMUP = Duration.ofSeconds(3);
+    private static final Duration MEASURE = Duration.ofSeconds(15);
+    private static final int DOCTORS = 50;
+    private static final int PATIENTS = 50;
+    // One-hour slots two hours apart (09, 11, 13, 15), so no two bookings overlap; each mode books its own days
+    private static final int FIRST_HOUR = 9;
+    private static final int SLOTS_PER_DAY = 4;
+    private static final int DAYS_PER_MODE = 28;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newCachedThreadPool())
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    @Test
+    void platformVersusVirtualThreads() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "virtual threads need JDK 21+");
+
+        List<String> report = new ArrayList<>();
+        report.addAll(benchmark("platform", 0));
+        report.addAll(benchmark("virtual", 1, "virtual"));
+
+        log.info("Virtual thread benchmark:\n{}\n{}",
+                String.format("%-9s %-13s %10s %9s %9s %6s", "mode", "endpoint", "req/s", "p50 ms", "p99 ms", "503s"),
+                String.join("\n", report));
+    }
+
+    // ---------- Helpers ----------
+
+    private List<String> benchmark(String mode, int block, String... profiles) throws Exception {
+        ConfigurableApplicationContext app = new SpringApplicationBuilder(BackEndApplication.class)
+                .profiles(profiles)
+                .properties("server.port=0")
+                .run();
+        Fixture fixture = new Fixture(app);
+        try {
+            String base = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+            LocalDate firstDay = LocalDate.now().plusDays(1 + (long) block * DAYS_PER_MODE);
+
+            Load availability = new Load(i -> {
+                int doctor = i % DOCTORS;
+                LocalDate day = firstDay.plusDays((i / DOCTORS) % DAYS_PER_MODE);
+                return HttpRequest.newBuilder(URI.create(base + "/api/doctor/availability/patient/"
+                                + fixture.doctors.get(doctor).getId() + "/" + day))
+                        .header("Authorization", "Bearer " + fixture.tokens.get(i % PATIENTS))
+                        .GET();
+            }, Integer.MAX_VALUE, 200);
+
+            // Every booking takes a different free slot, so each one writes
+            Load booking = new Load(i -> {
+                int doctor = i % DOCTORS;
+                int slot = i / DOCTORS;
+                LocalDateTime time = firstDay.plusDays(slot / SLOTS_PER_DAY).atTime(FIRST_HOUR + 2 * (slot % SLOTS_PER_DAY), 0);
+                Patient patient = fixture.patients.get(i % PATIENTS);
+                String body = "{\"doctor\":{\"id\":" + fixture.doctors.get(doctor).getId() + "},"
+                        + "\"patient\":{\"id\":" + patient.getId() + "},"
+                        + "\"appointmentTime\":\"" + time + "\",\"status\":0}";
+                return HttpRequest.newBuilder(URI.create(base + "/appointments"))
+                        .header("Authorization", "Bearer " + fixture.tokens.get(i % PATIENTS))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body));
+            }, DOCTORS * SLOTS_PER_DAY * DAYS_PER_MODE, 201);
+
+            return List.of(availability.run(mode, "availability"), booking.run(mode, "booking"));
+        } finally {
+            fixture.clean();
+            app.close();
+        }
+    }
+
+    // Doctors with hourly slots and patients with tokens, created through the application's own beans
+    private static final class Fixture {
+
+        private final ConfigurableApplicationContext app;
+        private final List<Doctor> doctors = new ArrayList<>();
+        private final List<Patient> patients = new ArrayList<>();
+        private final List<String> tokens = new ArrayList<>();
+
+        Fixture(ConfigurableApplicationContext app) {
+            this.app = app;
+            DoctorService doctorService = app.getBean(DoctorService.class);
+            DoctorRepository doctorRepository = app.getBean(DoctorRepository.class);
+            PatientRepository patientRepository = app.getBean(PatientRepository.class);
+            TokenService tokenService = app.getBean(TokenService.class);
+
+            String[] slots = new String[SLOTS_PER_DAY];
+            for (int k = 0; k < SLOTS_PER_DAY; k++) {
+                int h = FIRST_HOUR + 2 * k;
+                slots[k] = String.format("%02d:00-%02d:00", h, h + 1);
+            }
+            for (int i = 0; i < DOCTORS; i++) {
+                doctors.add(TestFixtures.registerDoctor(doctorService, doctorRepository, "Bench Doctor " + i, "Cardiology", slots));
+            }
+            for (int i = 0; i < PATIENTS; i++) {
+                Patient saved = patientRepository.save(TestFixtures.patient("Bench Patient " + i));
+                patients.add(saved);
+                tokens.add(tokenService.generateToken(saved.getEmail(), "patient", saved.getId()));
+            }
+        }
+
+        void clean() throws Exception {
+            DoctorDeletionService deletions = app.getBean(DoctorDeletionService.class);
+            for (Doctor d : doctors) deletions.start(d.getId()).getCompletion().get(5, TimeUnit.MINUTES);
+            app.getBean(PatientRepository.class).deleteAll(patients);
+        }
+    }
+
+    // CLIENTS closed-loop clients sending request i = 0, 1, 2, ... until MEASURE ends or requests run out
+    private final class Load {
+
+        private final IntFunction<HttpRequest.Builder> request;
+        private final int requests;
+        private final int expectedStatus;
+
+        Load(IntFunction<HttpRequest.Builder> request, int requests, int expectedStatus) {
+            this.request = request;
+            this.requests = requests;
+            this.expectedStatus = expectedStatus;
+        }
+
+        String run(String mode, String endpoint) throws Exception {
+            AtomicInteger next = new AtomicInteger();
+            AtomicLong shed = new AtomicLong();
+            Queue<String> failures = new ConcurrentLinkedQueue<>();
+            Queue<Long> latencies = new ConcurrentLinkedQueue<>();
+            long warmEnd = System.nanoTime() + WARMUP.toNanos();
+            long end = warmEnd + MEASURE.toNanos();
+            AtomicLong lastCompletion = new AtomicLong(warmEnd);
+
+            ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+            List<Future<?>> running = new ArrayList<>(CLIENTS);
+            for (int c = 0; c < CLIENTS; c++) {
+                running.add(clients.submit(() -> {
+                    int i;
+                    while (System.nanoTime() < end && (i = next.getAndIncrement()) < requests) {
+                        long start = System.nanoTime();
+                        HttpResponse<String> response = client.send(request.apply(i).timeout(Duration.ofSeconds(60)).build(),
+                                HttpResponse.BodyHandlers.ofString());
+                        long done = System.nanoTime();
+                        if (start < warmEnd) continue;
+
+                        lastCompletion.accumulateAndGet(done, Math::max);
+                        if (response.statusCode() == expectedStatus) {
+                            latencies.add(done - start);
+                        } else if (response.statusCode() == 503) {
+                            shed.incrementAndGet();
+                        } else {
+                            failures.add(response.statusCode() + " " + response.body());
+                        }
+                    }
+                    return null;
+                }));
+            }
+            clients.shutdown();
+            assertTrue(clients.awaitTermination(MEASURE.toSeconds() + 120, TimeUnit.SECONDS),
+                    mode + " " + endpoint + ": clients still running after the measurement window");
+            // A client that threw (connection refused, timeout) stopped early; count it as a failure
+            for (Future<?> f : running) {
+                try {
+                    f.get();
+                } catch (ExecutionException e) {
+                    failures.add("client error: " + e.getCause());
+                }
+            }
+
+            assertTrue(failures.isEmpty(),
+                    mode + " " + endpoint + ": " + failures.size() + " failed requests, first: " + failures.peek());
+
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            double seconds = Math.max(lastCompletion.get() - warmEnd, 1) / 1e9;
+            return String.format("%-9s %-13s %10.1f %9.1f %9.1f %6d", mode, endpoint,
+                    sorted.length / seconds, percentile(sorted, 0.50), percentile(sorted, 0.99), shed.get());
+        }
+
+        private double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) return Double.NaN;
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+            return sorted[Math.max(index, 0)] / 1e6;
+        }
+    }
+}